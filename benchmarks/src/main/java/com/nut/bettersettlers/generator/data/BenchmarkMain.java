@@ -0,0 +1,24 @@
+package com.nut.bettersettlers.generator.data;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Same as JMH's own main, except the gc profiler is always on so every run reports allocation
+ * rate alongside throughput.
+ */
+public final class BenchmarkMain {
+    // Prevent instantiation
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,58 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times a run of solved and scored xlarge boards on pools of different sizes, to see how
+ * BoardSampler scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardSamplerBenchmark {
+    private static final int BOARDS = 1 << 16;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private BoardSampler sampler;
+    private ForkJoinPool pool;
+    private long seed;
+
+    @Setup
+    public void setUp() throws IOException {
+        CatanMap catanMap = CatanMapGenerator.generateFromJson(
+                new ByteArrayInputStream(CatanMapGeneratorBenchmark.readRaw("xlarge")));
+        sampler = new BoardSampler(catanMap, true, new int[] { 13, 3, 150, 3 }, 1024);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BoardSampler.Sample sample() {
+        return sampler.sample(pool, seed++, BOARDS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times dealing one board into a reused CatanBoard for every map in res/raw, with and without
+ * solving the probabilities so no neighbors share a number or a 6/8, and scoring a dealt board.
+ * Dealing just the harbors is timed separately.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatanBoardGeneratorBenchmark {
+    @Param({"standard", "large", "xlarge", "heading_for_new_shores", "heading_for_new_shores_exp"})
+    public String map;
+
+    private CatanBoardGenerator generator;
+    private ProbabilitySolver solver;
+    private HarborDealer harborDealer;
+    private BoardScorer scorer;
+    private CatanBoard board;
+    private long seed;
+
+    @Setup
+    public void setUp() throws IOException {
+        CatanMap catanMap = CatanMapGenerator.generateFromJson(
+                new ByteArrayInputStream(CatanMapGeneratorBenchmark.readRaw(map)));
+        generator = new CatanBoardGenerator(catanMap);
+        solver = new ProbabilitySolver(catanMap);
+        harborDealer = new HarborDealer(catanMap);
+        scorer = new BoardScorer(catanMap);
+        board = generator.newBoard();
+        generator.generate(0, board);
+    }
+
+    @Benchmark
+    public CatanBoard generate() {
+        generator.generate(seed++, board);
+        return board;
+    }
+
+    @Benchmark
+    public boolean generateAndSolve() {
+        generator.generate(seed, board);
+        return solver.solve(seed++, board);
+    }
+
+    @Benchmark
+    public boolean dealHarbors() {
+        return harborDealer.deal(seed++, board);
+    }
+
+    @Benchmark
+    public int[] score() {
+        // Scoring doesn't change the board, so the same one is scored every time
+        scorer.score(board);
+        return scorer.getMetrics();
+    }
+}
@@ -0,0 +1,148 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times CatanMapGenerator.generateFromJson as a whole and phase by phase for every map in
+ * res/raw. The post-JSON helpers only read the grids and overwrite their own outputs, so each
+ * phase runs against a builder that has already been taken up to (and past) that phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatanMapGeneratorBenchmark {
+    @Param({"standard", "large", "xlarge", "heading_for_new_shores", "heading_for_new_shores_exp"})
+    public String map;
+
+    private byte[] json;
+    private boolean[] landWithHarbors;
+    private CatanMap.Builder builder;
+    private CatanMap catanMap;
+
+    @Setup
+    public void setUp() throws IOException, JSONException {
+        json = readRaw(map);
+
+        builder = CatanMap.newBuilder();
+        landWithHarbors = CatanMapGenerator.setFieldsFromJson(builder, newReader(), 0, null, null);
+        CatanMapGenerator.setHarborLinesAndWaterNeighborsHelper(builder, landWithHarbors);
+        CatanMapGenerator.setLandNeighborsAndIntersectionsAndPlacementIndexesHelper(builder);
+        CatanMapGenerator.setLandIntersectionIndexesAfterIntersectionsHelper(builder);
+
+        catanMap = CatanMapGenerator.generateFromJson(newInput());
+    }
+
+    @Benchmark
+    public CatanMap generateFromJson() {
+        return CatanMapGenerator.generateFromJson(newInput());
+    }
+
+    @Benchmark
+    public CatanMap.Builder parseJson() throws IOException, JSONException {
+        CatanMap.Builder parsed = CatanMap.newBuilder();
+        CatanMapGenerator.setFieldsFromJson(parsed, newReader(), 0, null, null);
+        return parsed;
+    }
+
+    @Benchmark
+    public IntTable harborLinesAndWaterNeighbors() {
+        CatanMapGenerator.setHarborLinesAndWaterNeighborsHelper(builder, landWithHarbors);
+        return builder.getHarborLines();
+    }
+
+    @Benchmark
+    public int[][] landNeighborsAndIntersectionsAndPlacementIndexes() {
+        CatanMapGenerator.setLandNeighborsAndIntersectionsAndPlacementIndexesHelper(builder);
+        return builder.getLandIntersections();
+    }
+
+    @Benchmark
+    public IntTable landIntersectionIndexes() {
+        CatanMapGenerator.setLandIntersectionIndexesAfterIntersectionsHelper(builder);
+        return builder.getLandIntersectionIndexes();
+    }
+
+    @Benchmark
+    public String toClassString() {
+        return catanMap.toClassString("Benchmark");
+    }
+
+    @Benchmark
+    public long writeClass() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        catanMap.writeClass("Benchmark", out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long writeCompactClass() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        catanMap.writeClass("Benchmark", CatanMap.ClassStyle.COMPACT, out);
+        return out.count;
+    }
+
+    private InputStream newInput() {
+        return new ByteArrayInputStream(json);
+    }
+
+    private Reader newReader() throws UnsupportedEncodingException {
+        return new InputStreamReader(newInput(), "UTF-8");
+    }
+
+    static byte[] readRaw(String name) throws IOException {
+        InputStream is = CatanMapGeneratorBenchmark.class.getResourceAsStream("/raw/" + name + ".json");
+        if (is == null) {
+            throw new IOException("No such map: " + name);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int read;
+            while ((read = is.read(buf)) != -1) {
+                out.write(buf, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+    /** Throws the generated class away, so writeClass is measured without the output's copy. */
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
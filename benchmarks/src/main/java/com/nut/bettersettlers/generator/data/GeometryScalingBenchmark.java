@@ -0,0 +1,85 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times the geometry passes on {@link SyntheticMaps} from a few dozen tiles up to about 100k, to
+ * see how they scale. Each radius has roughly 15 times the tiles of the one before it, so a pass
+ * that stays linear takes roughly 15 times as long, and one that's gone quadratic over 200 times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryScalingBenchmark {
+    @Param({"HEXAGON", "RECTANGLE", "ARCHIPELAGO"})
+    public SyntheticMaps.Shape shape;
+
+    @Param({"3", "12", "46", "182"})
+    public int radius;
+
+    private byte[] json;
+    private boolean[] landWithHarbors;
+    private CatanMap.Builder builder;
+    private CatanMap catanMap;
+
+    @Setup
+    public void setUp() throws IOException, JSONException {
+        json = SyntheticMaps.toJson(shape, radius, 0);
+
+        builder = CatanMap.newBuilder();
+        landWithHarbors = CatanMapGenerator.setFieldsFromJson(builder,
+                new InputStreamReader(new ByteArrayInputStream(json), "UTF-8"), 0, null, null);
+        CatanMapGenerator.setHarborLinesAndWaterNeighborsHelper(builder, landWithHarbors);
+        CatanMapGenerator.setLandNeighborsAndIntersectionsAndPlacementIndexesHelper(builder);
+        CatanMapGenerator.setLandIntersectionIndexesAfterIntersectionsHelper(builder);
+        catanMap = builder.build();
+    }
+
+    @Benchmark
+    public CatanMap generateFromJson() {
+        return CatanMapGenerator.generateFromJson(new ByteArrayInputStream(json));
+    }
+
+    @Benchmark
+    public IntTable harborLinesAndWaterNeighbors() {
+        CatanMapGenerator.setHarborLinesAndWaterNeighborsHelper(builder, landWithHarbors);
+        return builder.getHarborLines();
+    }
+
+    @Benchmark
+    public int[][] landNeighborsAndIntersectionsAndPlacementIndexes() {
+        CatanMapGenerator.setLandNeighborsAndIntersectionsAndPlacementIndexesHelper(builder);
+        return builder.getLandIntersections();
+    }
+
+    @Benchmark
+    public IntTable landIntersectionIndexes() {
+        CatanMapGenerator.setLandIntersectionIndexesAfterIntersectionsHelper(builder);
+        return builder.getLandIntersectionIndexes();
+    }
+
+    @Benchmark
+    public List<String> validate() {
+        return CatanMapValidator.validate(catanMap);
+    }
+}
@@ -0,0 +1,311 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Writes made-up maps of any size in the same JSON schema as res/raw, for seeing how the
+ * geometry passes scale well past the hand-written maps.
+ *
+ * Every map has a ring of water around its land, and the land is sprinkled with "harbor": false
+ * tiles, placement_blacklist entries and tiles on a resource or probability whitelist, so every
+ * branch of the helpers gets exercised. Which tiles get what only depends on the seed. land_water
+ * is left out, since the per-tile land fields aren't reordered when land is turned into water.
+ *
+ * Usage: SyntheticMaps &lt;hexagon|rectangle|archipelago&gt; &lt;radius&gt; &lt;seed&gt; &lt;output json&gt;
+ */
+public final class SyntheticMaps {
+    /** The overall shape of the land. */
+    public enum Shape {
+        /** A hexagon of land, radius tiles from the center tile to the edge: 3r(r + 1) + 1 tiles. */
+        HEXAGON,
+        /** A (2r + 1) by (2r + 1) block of land rows. */
+        RECTANGLE,
+        /** Seven tile islands scattered across a hexagon of water of the given radius. */
+        ARCHIPELAGO
+    }
+
+    private static final byte NONE = 0;
+    private static final byte LAND = 1;
+    private static final byte WATER = 2;
+
+    private static final String RESOURCE_WHITELIST = "synthetic_resources";
+    private static final String PROBABILITY_WHITELIST = "synthetic_probabilities";
+
+    private static final String[] RESOURCES = { "wood", "sheep", "wheat", "clay", "rock" };
+    private static final int[] PROBABILITIES = { 2, 3, 3, 4, 4, 5, 5, 6, 6, 8, 8, 9, 9, 10, 10, 11, 11, 12 };
+    private static final String[] HARBORS = { "wood", "sheep", "wheat", "clay", "rock", "desert", "desert", "desert", "desert" };
+    // Gold isn't in the resources dealt, so it can't come first: a one tile whitelist would allow nothing
+    private static final String[] WHITELIST_RESOURCES = { "sheep", "gold", "rock", "wheat", "wood", "clay" };
+    private static final int[] WHITELIST_PROBABILITIES = { 2, 3, 4, 5, 6, 8, 9, 10, 11, 12 };
+
+    // How often (one in n) a land tile is a desert, has no harbor, a whitelist or blacklist
+    private static final int DESERT_EVERY = 19;
+    private static final int NO_HARBOR_ONE_IN = 8;
+    private static final int WHITELIST_ONE_IN = 16;
+    private static final int BLACKLIST_ONE_IN = 16;
+
+    // Islands in an archipelago are radius 1, and 4 apart so there's always water between them
+    private static final int ISLAND_SPACING = 4;
+    private static final int ISLAND_ONE_IN = 4;
+
+    // Prevent instantiation
+    private SyntheticMaps() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: SyntheticMaps <hexagon|rectangle|archipelago> <radius> <seed> <output json>");
+            System.exit(1);
+        }
+
+        Shape shape = Shape.valueOf(args[0].toUpperCase(Locale.US));
+        Writer out = new OutputStreamWriter(new FileOutputStream(args[3]), "UTF-8");
+        try {
+            write(shape, Integer.parseInt(args[1]), Long.parseLong(args[2]), out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Returns the map's JSON as UTF-8, ready for CatanMapGenerator.generateFromJson. */
+    public static byte[] toJson(Shape shape, int radius, long seed) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            Writer out = new OutputStreamWriter(bytes, "UTF-8");
+            write(shape, radius, seed, out);
+            out.close();
+        } catch (IOException e) {
+            // Can't happen writing to memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void write(Shape shape, int radius, long seed, Writer out) throws IOException {
+        if (radius < 0 || 4 * radius + 8 > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Radius out of range: " + radius);
+        }
+
+        Grid grid = new Grid(radius);
+        switch (shape) {
+            case HEXAGON:
+                for (int r = -radius; r <= radius; r++) {
+                    for (int q = -radius; q <= radius; q++) {
+                        if (distance(q, r) <= radius) {
+                            grid.setAxial(q, r, LAND);
+                        }
+                    }
+                }
+                break;
+            case RECTANGLE:
+                for (int row = 0; row <= 2 * radius; row++) {
+                    for (int col = 0; col <= 2 * radius; col++) {
+                        grid.set(2 * col + (row & 1) + 2, row + 1, LAND);
+                    }
+                }
+                break;
+            case ARCHIPELAGO:
+                SplitMix64 islands = new SplitMix64(seed);
+                for (int r = -radius; r <= radius; r++) {
+                    for (int q = -radius; q <= radius; q++) {
+                        if (distance(q, r) <= radius) {
+                            grid.setAxial(q, r, WATER);
+                        }
+                    }
+                }
+                int first = -(radius / ISLAND_SPACING) * ISLAND_SPACING;
+                for (int r = first; r <= radius; r += ISLAND_SPACING) {
+                    for (int q = first; q <= radius; q += ISLAND_SPACING) {
+                        if (distance(q, r) > radius || islands.nextInt(ISLAND_ONE_IN) == 0) {
+                            continue;
+                        }
+                        grid.setAxial(q, r, LAND);
+                        for (int d = 0; d < 6; d++) {
+                            int hex = Hex.neighbor(Hex.pack(grid.x(q, r), grid.y(r)), d);
+                            if (grid.get(Hex.x(hex), Hex.y(hex)) == WATER) {
+                                grid.set(Hex.x(hex), Hex.y(hex), LAND);
+                            }
+                        }
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        int coast = grid.surroundWithWater();
+
+        String name = "synthetic_" + shape.name().toLowerCase(Locale.US) + "_" + radius;
+        out.write("{ \"name\": \"" + name + "\",\n");
+        out.write("  \"title\": \"Synthetic " + shape.name().toLowerCase(Locale.US) + " " + radius + "\",\n");
+
+        SplitMix64 rand = new SplitMix64(seed);
+        int lands = 0;
+        int resourceWhitelisted = 0;
+        int probabilityWhitelisted = 0;
+        out.write("  \"land\": [");
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                if (grid.get(x, y) != LAND) {
+                    continue;
+                }
+                out.write(lands++ == 0 ? "\n    " : ",\n    ");
+                writeXY(out, x, y, false);
+                if (rand.nextInt(NO_HARBOR_ONE_IN) == 0) {
+                    out.write(", \"harbor\": false");
+                }
+                if (rand.nextInt(WHITELIST_ONE_IN) == 0) {
+                    boolean resource = rand.nextBoolean();
+                    out.write(", \"whitelist\": \"" + (resource ? RESOURCE_WHITELIST : PROBABILITY_WHITELIST) + "\"");
+                    if (resource) {
+                        resourceWhitelisted++;
+                    } else {
+                        probabilityWhitelisted++;
+                    }
+                }
+                if (rand.nextInt(BLACKLIST_ONE_IN) == 0) {
+                    // Any non-empty set of directions
+                    int directions = 1 + rand.nextInt(63);
+                    out.write(", \"placement_blacklist\": [");
+                    String separator = " ";
+                    for (int d = 0; d < 6; d++) {
+                        if ((directions & (1 << d)) != 0) {
+                            out.write(separator + d);
+                            separator = ", ";
+                        }
+                    }
+                    out.write(" ]");
+                }
+                out.write(" }");
+            }
+        }
+        out.write("\n  ],\n");
+
+        out.write("  \"land_whitelist\": [\n");
+        out.write("    { \"key\": \"" + RESOURCE_WHITELIST + "\", \"type\": \"resource\", \"value\": [");
+        for (int i = 0; i < resourceWhitelisted; i++) {
+            out.write((i == 0 ? " \"" : ", \"") + WHITELIST_RESOURCES[i % WHITELIST_RESOURCES.length] + "\"");
+        }
+        out.write(" ] },\n");
+        out.write("    { \"key\": \"" + PROBABILITY_WHITELIST + "\", \"type\": \"probability\", \"value\": [");
+        for (int i = 0; i < probabilityWhitelisted; i++) {
+            out.write((i == 0 ? " \"" : ", \"") + WHITELIST_PROBABILITIES[i % WHITELIST_PROBABILITIES.length] + "\"");
+        }
+        out.write(" ] }\n  ],\n");
+
+        out.write("  \"water\": [");
+        int waters = 0;
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                if (grid.get(x, y) == WATER) {
+                    out.write(waters++ == 0 ? "\n    " : ",\n    ");
+                    writeXY(out, x, y, true);
+                }
+            }
+        }
+        out.write("\n  ],\n");
+
+        out.write("  \"resources\": [");
+        for (int i = 0; i < lands; i++) {
+            out.write(i == 0 ? " \"" : ", \"");
+            out.write(i % DESERT_EVERY == DESERT_EVERY - 1 ? "desert" : RESOURCES[i % RESOURCES.length]);
+            out.write("\"");
+        }
+        out.write(" ],\n");
+
+        out.write("  \"probabilities\": [");
+        for (int i = 0; i < lands; i++) {
+            out.write(i == 0 ? " " : ", ");
+            out.write(Integer.toString(i % DESERT_EVERY == DESERT_EVERY - 1 ? 0 : PROBABILITIES[i % PROBABILITIES.length]));
+        }
+        out.write(" ],\n");
+
+        // About one harbor for every other water tile on the coast
+        out.write("  \"harbors\": [");
+        for (int i = 0; i < (coast + 1) / 2; i++) {
+            out.write((i == 0 ? " \"" : ", \"") + HARBORS[i % HARBORS.length] + "\"");
+        }
+        out.write(" ]\n}\n");
+    }
+
+    private static void writeXY(Writer out, int x, int y, boolean close) throws IOException {
+        out.write("{ \"x\": ");
+        out.write(Integer.toString(x));
+        out.write(", \"y\": ");
+        out.write(Integer.toString(y));
+        if (close) {
+            out.write(" }");
+        }
+    }
+
+    /** How many steps the axial hexagon (q, r) is from (0, 0). */
+    private static int distance(int q, int r) {
+        return Math.max(Math.abs(q), Math.max(Math.abs(r), Math.abs(q + r)));
+    }
+
+    /**
+     * What's on each (x, y) of the map's bounding box. Shapes are laid out in axial (q, r)
+     * coordinates centered on (0, 0), which map onto the generator's as x = 2q + r, y = r, shifted
+     * so that even the ring of water around the edge stays non-negative.
+     */
+    private static final class Grid {
+        final int width;
+        final int height;
+        private final int center;
+        private final byte[] cells;
+
+        Grid(int radius) {
+            width = 4 * radius + 8;
+            height = 2 * radius + 4;
+            center = radius + 1;
+            cells = new byte[width * height];
+        }
+
+        int x(int q, int r) {
+            return 2 * q + r + 2 * center;
+        }
+
+        int y(int r) {
+            return r + center;
+        }
+
+        byte get(int x, int y) {
+            return cells[y * width + x];
+        }
+
+        void set(int x, int y, byte cell) {
+            cells[y * width + x] = cell;
+        }
+
+        void setAxial(int q, int r, byte cell) {
+            set(x(q, r), y(r), cell);
+        }
+
+        /** Turns every empty tile next to land into water, and returns how many water tiles touch land. */
+        int surroundWithWater() {
+            int coast = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (get(x, y) == LAND) {
+                        continue;
+                    }
+                    boolean touchesLand = false;
+                    for (int d = 0; d < 6 && !touchesLand; d++) {
+                        int hex = Hex.neighbor(Hex.pack(x, y), d);
+                        int nx = Hex.x(hex);
+                        int ny = Hex.y(hex);
+                        touchesLand = nx >= 0 && nx < width && ny >= 0 && ny < height && get(nx, ny) == LAND;
+                    }
+                    if (touchesLand) {
+                        set(x, y, WATER);
+                        coast++;
+                    }
+                }
+            }
+            return coast;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.nut.bettersettlers.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.nut.bettersettlers.generator.data.CatanMap;
+import com.nut.bettersettlers.generator.data.CatanMapBinary;
+import com.nut.bettersettlers.generator.data.CatanMapBundle;
+import com.nut.bettersettlers.generator.data.CatanMapGenerator;
+import com.nut.bettersettlers.generator.data.GenerationProfile;
+import com.nut.bettersettlers.generator.data.Logger;
+
+/**
+ * Generates a set of maps and writes their outputs. Shared by the Android service and
+ * CatanMapGeneratorMain, which only differ in where the json comes from and the outputs go.
+ *
+ * Maps whose json and generator haven't changed since the last run (see GenerationManifest) are
+ * skipped, so a run only costs as much as what was edited.
+ *
+ * Maps are parsed, derived and rendered on a fixed pool of threads, a bounded number of them at
+ * a time. Each is rendered straight into its new outputs, so memory only grows with the write
+ * buffers and not with how big the outputs are. The calling thread commits them in the order
+ * the maps were given, and one map failing doesn't stop the others from being written.
+ *
+ * With profiling on, each generated map's phases are timed (see GenerationProfile) and written
+ * out as PROFILE_JSON and PROFILE_CSV.
+ */
+public final class CatanMapBatchGenerator {
+    private static final String TAG = "CatanMapGenerator";
+
+    /** Per-phase timings of the maps generated in the last run, when profiling. */
+    public static final String PROFILE_JSON = "generator.profile.json";
+    public static final String PROFILE_CSV = "generator.profile.csv";
+
+    /**
+     * Where the json comes from and where outputs go. openJson and openForWriting may be called
+     * from any thread.
+     */
+    public interface Files {
+        InputStream openJson(String rawName) throws IOException;
+
+        boolean exists(String name);
+
+        InputStream openForReading(String name) throws IOException;
+
+        /** Starts a new version of name, which only replaces the old one once it's committed. */
+        Output openForWriting(String name) throws IOException;
+    }
+
+    /**
+     * A new version of an output. Nothing reading the output sees it until commit(), and closing
+     * it without committing throws it away, so a write that fails part way leaves the old output
+     * as it was.
+     */
+    public abstract static class Output extends OutputStream {
+        /** Finishes writing and replaces the old output with this one. */
+        public abstract void commit() throws IOException;
+
+        /** Throws the output away if it wasn't committed, otherwise does nothing. */
+        @Override
+        public abstract void close();
+    }
+
+    private final Files files;
+    private final OutputFormat format;
+    private final Logger logger;
+    private final int threads;
+    private final boolean profiling;
+
+    public CatanMapBatchGenerator(Files files, OutputFormat format, Logger logger) {
+        this(files, format, logger, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CatanMapBatchGenerator(Files files, OutputFormat format, Logger logger, int threads) {
+        this(files, format, logger, threads, false);
+    }
+
+    public CatanMapBatchGenerator(Files files, OutputFormat format, Logger logger, int threads, boolean profiling) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.files = files;
+        this.format = format;
+        this.logger = logger;
+        this.threads = threads;
+        this.profiling = profiling;
+    }
+
+    /**
+     * Generates every out of date map in maps (class name to raw json name).
+     * Returns how many maps were generated.
+     */
+    public int generate(Map<String, String> maps) throws IOException {
+        logger.i(TAG, "Start");
+        GenerationManifest manifest = GenerationManifest.read(files);
+
+        Map<String, CatanMap> generated = new LinkedHashMap<String, CatanMap>();
+        Map<String, GenerationProfile> profiles = new LinkedHashMap<String, GenerationProfile>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // Only keep a couple of maps per thread in flight, so memory doesn't grow with the batch
+        Deque<Future<Result>> inFlight = new ArrayDeque<Future<Result>>();
+        try {
+            for (Map.Entry<String, String> map : maps.entrySet()) {
+                if (inFlight.size() >= threads * 2) {
+                    write(inFlight.removeFirst(), manifest, generated, profiles);
+                }
+                inFlight.addLast(executor.submit(new Task(map.getKey(), map.getValue(), manifest)));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.removeFirst(), manifest, generated, profiles);
+            }
+        } finally {
+            executor.shutdownNow();
+            // Throw away anything rendered that won't be committed now
+            for (Future<Result> future : inFlight) {
+                discard(future);
+            }
+        }
+
+        if (format.writesBundle && (!generated.isEmpty() || !files.exists(CatanMapBundle.FILE_NAME))) {
+            writeBundle(maps, generated);
+        }
+
+        manifest.write(files);
+        if (profiling) {
+            writeProfiles(profiles);
+        }
+        return generated.size();
+    }
+
+    /** Waits for one map and commits its outputs. */
+    private void write(Future<Result> future, GenerationManifest manifest, Map<String, CatanMap> generated,
+            Map<String, GenerationProfile> profiles) throws IOException {
+        Result result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            // The task already logged which map it was
+            return;
+        }
+
+        if (result.map == null) {
+            logger.i(TAG, "Skipping " + result.name);
+            return;
+        }
+
+        logger.i(TAG, "Writing " + result.name);
+        manifest.remove(result.name);
+        try {
+            if (result.java != null) {
+                result.java.commit();
+            }
+            if (result.binary != null) {
+                result.binary.commit();
+            }
+        } catch (IOException e) {
+            logger.e(TAG, "IOException writing " + result.name, e);
+            return;
+        } finally {
+            result.close();
+        }
+        manifest.put(result.name, result.hash, format);
+        generated.put(result.name, result.map);
+        if (result.profile != null) {
+            profiles.put(result.name, result.profile);
+        }
+    }
+
+    private static void discard(Future<Result> future) {
+        try {
+            future.get().close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Nothing was kept
+        }
+    }
+
+    private void writeProfiles(Map<String, GenerationProfile> profiles) throws IOException {
+        if (!GenerationProfile.isAllocationTracked()) {
+            logger.i(TAG, "No allocation counter, profiles only have timings");
+        }
+        Output jsonOutput = files.openForWriting(PROFILE_JSON);
+        try {
+            Writer json = new OutputStreamWriter(jsonOutput, "UTF-8");
+            GenerationProfile.writeJson(profiles, json);
+            json.flush();
+            jsonOutput.commit();
+        } finally {
+            jsonOutput.close();
+        }
+        Output csvOutput = files.openForWriting(PROFILE_CSV);
+        try {
+            Writer csv = new OutputStreamWriter(csvOutput, "UTF-8");
+            GenerationProfile.writeCsv(profiles, csv);
+            csv.flush();
+            csvOutput.commit();
+        } finally {
+            csvOutput.close();
+        }
+    }
+
+    private CatanMap generate(String rawName, GenerationProfile profile) throws IOException {
+        InputStream is = files.openJson(rawName);
+        try {
+            return CatanMapGenerator.generateFromJson(is, profile);
+        } finally {
+            is.close();
+        }
+    }
+
+    private boolean hasOutputs(String name) {
+        return (!format.writesJava || files.exists(name + ".java"))
+                && (!format.writesBinary || files.exists(name + CatanMapBinary.EXTENSION))
+                && (!format.writesBundle || files.exists(CatanMapBundle.FILE_NAME));
+    }
+
+    /** Rewrites the bundle, taking maps that weren't regenerated from the old one. */
+    private void writeBundle(Map<String, String> maps, Map<String, CatanMap> generated) throws IOException {
+        logger.i(TAG, "Writing " + CatanMapBundle.FILE_NAME);
+        CatanMapBundle oldBundle = readOldBundle();
+
+        Map<String, CatanMap> bundle = new LinkedHashMap<String, CatanMap>();
+        for (Map.Entry<String, String> map : maps.entrySet()) {
+            CatanMap catanMap = generated.get(map.getKey());
+            if (catanMap == null && oldBundle != null) {
+                catanMap = oldBundle.get(map.getKey());
+            }
+            if (catanMap == null) {
+                catanMap = generate(map.getValue(), null);
+            }
+            if (catanMap != null) {
+                bundle.put(map.getKey(), catanMap);
+            }
+        }
+
+        Output os = files.openForWriting(CatanMapBundle.FILE_NAME);
+        try {
+            CatanMapBundle.write(bundle, os);
+            os.commit();
+        } finally {
+            os.close();
+        }
+    }
+
+    private CatanMapBundle readOldBundle() {
+        if (!files.exists(CatanMapBundle.FILE_NAME)) {
+            return null;
+        }
+
+        try {
+            InputStream is = files.openForReading(CatanMapBundle.FILE_NAME);
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = is.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+                return CatanMapBundle.open(ByteBuffer.wrap(bytes.toByteArray()));
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            logger.e(TAG, "Couldn't read the old " + CatanMapBundle.FILE_NAME + ", regenerating", e);
+            return null;
+        }
+    }
+
+    /** Hashes, parses, derives and renders one map off of the calling thread. */
+    private final class Task implements Callable<Result> {
+        private final String name;
+        private final String rawName;
+        private final GenerationManifest manifest;
+
+        Task(String name, String rawName, GenerationManifest manifest) {
+            this.name = name;
+            this.rawName = rawName;
+            this.manifest = manifest;
+        }
+
+        @Override
+        public Result call() throws Exception {
+            try {
+                String hash = GenerationManifest.hash(files.openJson(rawName));
+                if (manifest.isUpToDate(name, hash, format) && hasOutputs(name)) {
+                    return new Result(name, hash, null, null, null, null);
+                }
+
+                GenerationProfile profile = profiling ? new GenerationProfile() : null;
+                CatanMap catanMap = generate(rawName, profile);
+                if (catanMap == null) {
+                    throw new IOException("Couldn't parse " + rawName);
+                }
+
+                // Rendered here, so the writing thread only has to commit them
+                Output java = null;
+                Output binary = null;
+                boolean rendered = false;
+                try {
+                    if (format.writesJava) {
+                        java = files.openForWriting(name + ".java");
+                        catanMap.writeClass(name, format.classStyle, java);
+                        java.flush();
+                    }
+                    if (format.writesBinary) {
+                        binary = files.openForWriting(name + CatanMapBinary.EXTENSION);
+                        CatanMapBinary.write(catanMap, binary);
+                        binary.flush();
+                    }
+                    rendered = true;
+                } finally {
+                    if (!rendered) {
+                        close(java);
+                        close(binary);
+                    }
+                }
+                if (profile != null) {
+                    profile.lap(GenerationProfile.Phase.CODEGEN);
+                }
+                return new Result(name, hash, catanMap, java, binary, profile);
+            } catch (Exception e) {
+                logger.e(TAG, "Couldn't generate " + name, e);
+                throw e;
+            }
+        }
+    }
+
+    private static void close(Output output) {
+        if (output != null) {
+            output.close();
+        }
+    }
+
+    /**
+     * One generated map and its rendered, uncommitted outputs. map is null if it was already up
+     * to date.
+     */
+    private static final class Result {
+        final String name;
+        final String hash;
+        final CatanMap map;
+        final Output java;
+        final Output binary;
+        final GenerationProfile profile;
+
+        Result(String name, String hash, CatanMap map, Output java, Output binary, GenerationProfile profile) {
+            this.name = name;
+            this.hash = hash;
+            this.map = map;
+            this.java = java;
+            this.binary = binary;
+            this.profile = profile;
+        }
+
+        /** Throws away whichever outputs weren't committed. */
+        void close() {
+            CatanMapBatchGenerator.close(java);
+            CatanMapBatchGenerator.close(binary);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.nut.bettersettlers.generator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import com.nut.bettersettlers.generator.data.CatanMapBinary;
+import com.nut.bettersettlers.generator.data.CatanMapGenerator;
+
+/**
+ * Remembers, for each generated map, the hash of the json it came from plus the generator and
+ * output versions. A map whose entry still matches doesn't need to be generated again.
+ *
+ * Stored as a properties file of name=version,format,sha1.
+ */
+final class GenerationManifest {
+    static final String FILE_NAME = "generator.manifest";
+
+    private static final String VERSION = CatanMapGenerator.VERSION + "." + CatanMapBinary.VERSION;
+
+    private final Properties entries;
+
+    private GenerationManifest(Properties entries) {
+        this.entries = entries;
+    }
+
+    /** Reads the manifest, or starts an empty one if there isn't one yet. */
+    static GenerationManifest read(CatanMapBatchGenerator.Files files) throws IOException {
+        Properties entries = new Properties();
+        if (files.exists(FILE_NAME)) {
+            InputStream is = files.openForReading(FILE_NAME);
+            try {
+                entries.load(is);
+            } finally {
+                is.close();
+            }
+        }
+        return new GenerationManifest(entries);
+    }
+
+    void write(CatanMapBatchGenerator.Files files) throws IOException {
+        CatanMapBatchGenerator.Output os = files.openForWriting(FILE_NAME);
+        try {
+            entries.store(os, "Generated by CatanMapBatchGenerator, do not edit");
+            os.commit();
+        } finally {
+            os.close();
+        }
+    }
+
+    boolean isUpToDate(String name, String hash, OutputFormat format) {
+        return entry(hash, format).equals(entries.getProperty(name));
+    }
+
+    void put(String name, String hash, OutputFormat format) {
+        entries.setProperty(name, entry(hash, format));
+    }
+
+    void remove(String name) {
+        entries.remove(name);
+    }
+
+    /** Returns the hex SHA-1 of everything in the stream, and closes it. */
+    static String hash(InputStream is) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("No SHA-1", e);
+        }
+
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            is.close();
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static String entry(String hash, OutputFormat format) {
+        return VERSION + "," + format.name() + "," + hash;
+    }
+}
@@ -0,0 +1,46 @@
+package com.nut.bettersettlers.generator;
+
+import java.util.Locale;
+
+import com.nut.bettersettlers.generator.data.CatanMap.ClassStyle;
+
+/** Which files to write for each generated map. */
+public enum OutputFormat {
+    /** CatanMapProvider .java source (see CatanMap.toClassString). */
+    JAVA(ClassStyle.LITERAL, false, false),
+
+    /** CatanMapProvider .java source with the tables packed into strings (see CompactClassWriter). */
+    COMPACT_JAVA(ClassStyle.COMPACT, false, false),
+
+    /** CatanMapProvider .java source that only builds the map on first use (see ClassStyle.LAZY). */
+    LAZY_JAVA(ClassStyle.LAZY, false, false),
+
+    /** Compiled binary maps (see CatanMapBinary). */
+    BINARY(null, true, false),
+
+    BOTH(ClassStyle.LITERAL, true, false),
+
+    /** Every compiled map in one memory-mappable file (see CatanMapBundle). */
+    BUNDLE(null, false, true);
+
+    public final boolean writesJava;
+    /** How the .java source is written, null if it isn't. */
+    public final ClassStyle classStyle;
+    public final boolean writesBinary;
+    public final boolean writesBundle;
+
+    private OutputFormat(ClassStyle classStyle, boolean writesBinary, boolean writesBundle) {
+        this.writesJava = classStyle != null;
+        this.classStyle = classStyle;
+        this.writesBinary = writesBinary;
+        this.writesBundle = writesBundle;
+    }
+
+    /** Parses "java", "compact_java", "lazy_java", "binary", "both" or "bundle", defaulting to JAVA if null. */
+    public static OutputFormat parse(String value) {
+        if (value == null) {
+            return JAVA;
+        }
+        return valueOf(value.toUpperCase(Locale.US));
+    }
+}
@@ -0,0 +1,73 @@
+package com.nut.bettersettlers.generator;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a new version of a file to a temporary file next to it, and only renames it over the
+ * file on commit(). Closing it without committing deletes the temporary file, so a failed write
+ * leaves the old file as it was.
+ */
+public final class ReplacingFileOutput extends CatanMapBatchGenerator.Output {
+    private final File file;
+    private final File temp;
+    private final OutputStream out;
+    private boolean closed;
+
+    public ReplacingFileOutput(File file) throws IOException {
+        this.file = file;
+        this.temp = new File(file.getPath() + ".tmp");
+        this.out = new BufferedOutputStream(new FileOutputStream(temp));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void commit() throws IOException {
+        if (closed) {
+            throw new IOException(file + " was already closed");
+        }
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        // Renaming over the old file is atomic on POSIX, elsewhere it has to go first
+        if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+            temp.delete();
+            throw new IOException("Couldn't replace " + file);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            // It's being thrown away anyway
+        }
+        temp.delete();
+    }
+}
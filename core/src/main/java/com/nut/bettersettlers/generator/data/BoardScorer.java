@@ -0,0 +1,348 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Scores how fair a dealt {@link CatanBoard} is, using the map's landIntersections: the pips
+ * (how many of the 36 rolls pay out) at every intersection, each resource's share of the pips,
+ * the best opening spots and how much the resources clump together.
+ *
+ * Every score is a metric where lower is fairer, so boards can be filtered with one upper bound
+ * per metric, either one at a time with score or in bulk straight off a CatanBoardGenerator.
+ * Works on flat int arrays and doesn't allocate per board. Not safe to share between threads,
+ * use one per thread.
+ */
+public final class BoardScorer {
+    /** The most pips any one intersection gets. */
+    public static final int MAX_INTERSECTION_PIPS = 0;
+
+    /**
+     * How many more pips the best opening spot has than the last of the best openings. Openings
+     * keep to the distance rule, so no two of them are next to each other.
+     */
+    public static final int OPENING_SPREAD = 1;
+
+    /** The gap between the most and least produced resource, in thousandths of all pips. */
+    public static final int RESOURCE_SPREAD = 2;
+
+    /** How many pairs of neighboring land tiles have the same resource. */
+    public static final int SAME_RESOURCE_NEIGHBORS = 3;
+
+    /** How many metrics score fills in per board. */
+    public static final int METRICS = 4;
+
+    /** Two settlements each for four players. */
+    public static final int DEFAULT_OPENINGS = 8;
+
+    /** What every metric gets for a board that couldn't be dealt. */
+    public static final int UNSCORED = Integer.MAX_VALUE;
+
+    private static final int NONE = CatanBoard.NONE;
+    private static final int DESERT = Resource.DESERT.ordinal();
+    private static final int WATER = Resource.WATER.ordinal();
+
+    private final CatanMap map;
+    private final int openings;
+
+    // landIntersections flattened, intersection i is tiles[starts[i]..starts[i + 1])
+    private final int[] intersectionStarts;
+    private final int[] intersectionTiles;
+    private final boolean[] placeable;
+    // The placeable intersections, and the placeable ones next to each (indexed by intersection)
+    private final int[] spots;
+    private final IntTable spotNeighbors;
+    private final boolean[] producing;
+    // Every pair of neighboring land tiles once, as tile, neighbor, tile, neighbor...
+    private final int[] neighborPairs;
+
+    private final int[] tilePips;
+    private final int[] intersectionPips;
+    private final int[] resourcePips;
+    private final int[] pipStarts;
+    private final int[] spotsByPips;
+    private final boolean[] blocked;
+    private final int[] bestSpots;
+    private int bestSpotCount;
+    private final int[] metrics = new int[METRICS];
+
+    private final CatanBoard board;
+
+    public BoardScorer(CatanMap map) {
+        this(map, DEFAULT_OPENINGS);
+    }
+
+    public BoardScorer(CatanMap map, int openings) {
+        if (openings < 1) {
+            throw new IllegalArgumentException("openings must be at least 1");
+        }
+        this.map = map;
+        this.openings = openings;
+
+        int intersections = map.landIntersections.length;
+        intersectionStarts = new int[intersections + 1];
+        IntList tiles = new IntList(intersections * 3);
+        placeable = new boolean[intersections];
+        for (int i = 0; i < intersections; i++) {
+            intersectionStarts[i] = tiles.size();
+            for (int tile : map.landIntersections[i]) {
+                tiles.add(tile);
+            }
+            // Blacklisted placements are left empty
+            placeable[i] = i < map.placementIndexes.length && map.placementIndexes[i].length > 0;
+        }
+        intersectionStarts[intersections] = tiles.size();
+        intersectionTiles = tiles.toArray();
+
+        // Where each placeable intersection is, to find which of them are one edge apart
+        Map<Long, Integer> points = new HashMap<Long, Integer>();
+        IntList placeableSpots = new IntList();
+        int maxTiles = 0;
+        for (int i = 0; i < intersections; i++) {
+            maxTiles = Math.max(maxTiles, intersectionStarts[i + 1] - intersectionStarts[i]);
+            if (placeable[i]) {
+                int[] placement = map.placementIndexes[i];
+                points.put(Hex.corner(map.landHexes[placement[0]], placement[1]), i);
+                placeableSpots.add(i);
+            }
+        }
+        spots = placeableSpots.toArray();
+        IntTable.Builder neighbors = new IntTable.Builder(intersections);
+        for (int i = 0; i < intersections; i++) {
+            if (placeable[i]) {
+                int[] placement = map.placementIndexes[i];
+                long point = Hex.corner(map.landHexes[placement[0]], placement[1]);
+                for (int edge = 0; edge < 6; edge++) {
+                    Integer neighbor = points.get(Hex.cornerNeighbor(point, edge));
+                    if (neighbor != null) {
+                        neighbors.add(neighbor);
+                    }
+                }
+            }
+            neighbors.endRow();
+        }
+        spotNeighbors = neighbors.build();
+
+        // Only resources the map actually hands out count towards the spread
+        producing = new boolean[Resource.values().length];
+        for (Resource resource : map.availableResources) {
+            if (resource != null && resource.ordinal() != DESERT && resource.ordinal() != WATER) {
+                producing[resource.ordinal()] = true;
+            }
+        }
+
+        IntList pairs = new IntList();
+        IntTable landNeighbors = map.landNeighbors;
+        for (int tile = 0; tile < landNeighbors.rows(); tile++) {
+            for (int n = landNeighbors.start(tile); n < landNeighbors.end(tile); n++) {
+                int neighbor = landNeighbors.value(n);
+                if (neighbor > tile) {
+                    pairs.add(tile);
+                    pairs.add(neighbor);
+                }
+            }
+        }
+        neighborPairs = pairs.toArray();
+
+        tilePips = new int[map.landHexes.length];
+        intersectionPips = new int[intersections];
+        resourcePips = new int[producing.length];
+        // No tile has more than 6 pips
+        pipStarts = new int[6 * maxTiles + 1];
+        spotsByPips = new int[spots.length];
+        blocked = new boolean[intersections];
+        bestSpots = new int[openings];
+        board = new CatanBoard(map);
+    }
+
+    /** Returns how many of the 36 rolls of two dice come up as probability. */
+    public static int pips(int probability) {
+        if (probability < 2 || probability > 12) {
+            return 0;
+        }
+        return 6 - Math.abs(7 - probability);
+    }
+
+    /** Pips per intersection (indexed like landIntersections) from the last score. */
+    public int[] getIntersectionPips() {
+        return intersectionPips;
+    }
+
+    /** Pips per Resource ordinal from the last score. */
+    public int[] getResourcePips() {
+        return resourcePips;
+    }
+
+    /** Returns the share of all pips that went to resource in the last score, from 0 to 1. */
+    public float getResourceShare(Resource resource) {
+        int total = 0;
+        for (int pips : resourcePips) {
+            total += pips;
+        }
+        return total == 0 ? 0 : resourcePips[resource.ordinal()] / (float) total;
+    }
+
+    /**
+     * The best placeable intersections from the last score, best first, no two of them next to
+     * each other. Only the first getBestSpotCount are filled in.
+     */
+    public int[] getBestSpots() {
+        return bestSpots;
+    }
+
+    public int getBestSpotCount() {
+        return bestSpotCount;
+    }
+
+    /** The metrics from the last score, indexed by the metric constants. */
+    public int[] getMetrics() {
+        return metrics;
+    }
+
+    /** Scores board, after which the getters describe it. */
+    public void score(CatanBoard board) {
+        int[] probabilities = board.landProbabilities;
+        int[] resources = board.landResources;
+
+        for (int i = 0; i < resourcePips.length; i++) {
+            resourcePips[i] = 0;
+        }
+        for (int tile = 0; tile < resources.length; tile++) {
+            tilePips[tile] = pips(probabilities[tile]);
+            if (resources[tile] != NONE) {
+                resourcePips[resources[tile]] += tilePips[tile];
+            }
+        }
+
+        int maxPips = 0;
+        for (int i = 0; i < intersectionPips.length; i++) {
+            int pips = 0;
+            for (int t = intersectionStarts[i]; t < intersectionStarts[i + 1]; t++) {
+                pips += tilePips[intersectionTiles[t]];
+            }
+            intersectionPips[i] = pips;
+            maxPips = Math.max(maxPips, pips);
+        }
+        pickBestSpots();
+
+        int total = 0;
+        int most = 0;
+        int least = Integer.MAX_VALUE;
+        for (int i = 0; i < resourcePips.length; i++) {
+            if (producing[i]) {
+                total += resourcePips[i];
+                most = Math.max(most, resourcePips[i]);
+                least = Math.min(least, resourcePips[i]);
+            }
+        }
+
+        int sameNeighbors = 0;
+        for (int i = 0; i < neighborPairs.length; i += 2) {
+            int resource = resources[neighborPairs[i]];
+            if (resource != NONE && resource == resources[neighborPairs[i + 1]]) {
+                sameNeighbors++;
+            }
+        }
+
+        metrics[MAX_INTERSECTION_PIPS] = maxPips;
+        metrics[OPENING_SPREAD] = bestSpotCount == 0
+                ? 0 : intersectionPips[bestSpots[0]] - intersectionPips[bestSpots[bestSpotCount - 1]];
+        metrics[RESOURCE_SPREAD] = total == 0 ? 0 : (most - least) * 1000 / total;
+        metrics[SAME_RESOURCE_NEIGHBORS] = sameNeighbors;
+    }
+
+    /**
+     * Picks the openings the way players would: the best spot left each time, ties going to the
+     * earlier intersection, skipping spots next to one already picked.
+     */
+    private void pickBestSpots() {
+        // Counting sort by pips, most first, keeping intersection order within the same pips
+        Arrays.fill(pipStarts, 0);
+        for (int spot : spots) {
+            pipStarts[intersectionPips[spot]]++;
+        }
+        int start = 0;
+        for (int pips = pipStarts.length - 1; pips >= 0; pips--) {
+            int count = pipStarts[pips];
+            pipStarts[pips] = start;
+            start += count;
+        }
+        for (int spot : spots) {
+            spotsByPips[pipStarts[intersectionPips[spot]]++] = spot;
+        }
+
+        bestSpotCount = 0;
+        for (int i = 0; i < spotsByPips.length && bestSpotCount < openings; i++) {
+            int spot = spotsByPips[i];
+            if (blocked[spot]) {
+                continue;
+            }
+            bestSpots[bestSpotCount++] = spot;
+            for (int n = spotNeighbors.start(spot); n < spotNeighbors.end(spot); n++) {
+                blocked[spotNeighbors.value(n)] = true;
+            }
+        }
+        for (int i = 0; i < bestSpotCount; i++) {
+            int spot = bestSpots[i];
+            for (int n = spotNeighbors.start(spot); n < spotNeighbors.end(spot); n++) {
+                blocked[spotNeighbors.value(n)] = false;
+            }
+        }
+    }
+
+    /**
+     * Deals and scores the boards for seeds firstSeed to firstSeed + count - 1, writing each
+     * board's metrics to metrics[board * METRICS + metric]. If solver isn't null it places the
+     * probabilities, and boards it can't solve get UNSCORED for every metric.
+     */
+    public void scoreAll(CatanBoardGenerator generator, ProbabilitySolver solver, long firstSeed, int count,
+            int[] metrics) {
+        for (int i = 0; i < count; i++) {
+            if (deal(generator, solver, firstSeed + i)) {
+                System.arraycopy(this.metrics, 0, metrics, i * METRICS, METRICS);
+            } else {
+                for (int j = 0; j < METRICS; j++) {
+                    metrics[i * METRICS + j] = UNSCORED;
+                }
+            }
+        }
+    }
+
+    /**
+     * Deals boards from firstSeed on until count have been tried or seeds is full, keeping the
+     * seeds of the boards whose every metric is at most its entry in maxMetrics. Returns how many
+     * seeds were kept.
+     */
+    public int filter(CatanBoardGenerator generator, ProbabilitySolver solver, long firstSeed, int count,
+            int[] maxMetrics, long[] seeds) {
+        int kept = 0;
+        for (int i = 0; i < count && kept < seeds.length; i++) {
+            if (deal(generator, solver, firstSeed + i) && passes(maxMetrics)) {
+                seeds[kept++] = firstSeed + i;
+            }
+        }
+        return kept;
+    }
+
+    private boolean deal(CatanBoardGenerator generator, ProbabilitySolver solver, long seed) {
+        if (generator.getMap() != map) {
+            throw new IllegalArgumentException("Generator is for a different map");
+        }
+        generator.generate(seed, board);
+        if (solver != null && !solver.solve(seed, board)) {
+            return false;
+        }
+        score(board);
+        return true;
+    }
+
+    private boolean passes(int[] maxMetrics) {
+        for (int i = 0; i < METRICS; i++) {
+            if (metrics[i] > maxMetrics[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
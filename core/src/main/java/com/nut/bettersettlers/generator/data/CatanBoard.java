@@ -0,0 +1,65 @@
+package com.nut.bettersettlers.generator.data;
+
+/**
+ * One dealt board for a {@link CatanMap}: what ended up on each land and water tile. Everything is
+ * a primitive array indexed like the map's landGrid and waterGrid, so a board can be dealt over
+ * and over into the same instance without allocating.
+ */
+public final class CatanBoard {
+    /** Marks a tile that didn't get anything. */
+    public static final int NONE = -1;
+
+    private static final Resource[] RESOURCES = Resource.values();
+
+    /** The Resource ordinal on each land tile, or NONE. */
+    public final int[] landResources;
+
+    /** The probability (number token) on each land tile, 0 for the desert or NONE. */
+    public final int[] landProbabilities;
+
+    /** The Resource ordinal of the harbor on each water tile (DESERT is 3:1), or NONE. */
+    public final int[] harbors;
+
+    /** Which of the water tile's harborLines the harbor faces, or NONE. */
+    public final int[] harborPositions;
+
+    /** The seed this board was dealt from. */
+    long seed;
+
+    public CatanBoard(CatanMap map) {
+        this.landResources = new int[map.landHexes.length];
+        this.landProbabilities = new int[map.landHexes.length];
+        this.harbors = new int[map.waterHexes.length];
+        this.harborPositions = new int[map.waterHexes.length];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the resource on a land tile or null if it didn't get one. */
+    public Resource getLandResource(int land) {
+        return landResources[land] == NONE ? null : RESOURCES[landResources[land]];
+    }
+
+    /** Returns the harbor on a water tile or null if it doesn't have one. */
+    public Resource getHarbor(int water) {
+        return harbors[water] == NONE ? null : RESOURCES[harbors[water]];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[Settlers Board: (").append(seed).append(")").append("\n");
+        for (int i = 0; i < landResources.length; i++) {
+            sb.append("  Land ").append(i).append(": ").append(getLandResource(i))
+                    .append(" ").append(landProbabilities[i]).append("\n");
+        }
+        for (int i = 0; i < harbors.length; i++) {
+            if (harbors[i] != NONE) {
+                sb.append("  Harbor ").append(i).append(": ").append(getHarbor(i))
+                        .append(" ").append(harborPositions[i]).append("\n");
+            }
+        }
+        return sb.append("]").toString();
+    }
+}
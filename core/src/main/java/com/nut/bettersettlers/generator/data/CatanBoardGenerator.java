@@ -0,0 +1,257 @@
+package com.nut.bettersettlers.generator.data;
+
+/**
+ * Deals random boards for a {@link CatanMap}: availableResources and availableProbabilities onto
+ * the land, availableHarbors onto the water.
+ *
+ * Fixed landGridResources/landGridProbabilities are kept, whitelisted tiles are dealt first, each
+ * a random piece of what's left that its whitelist allows (see CatanMap.canTakeResource), and
+ * deserts always get 0. If the map has a landGridOrder and availableOrderedProbabilities the
+ * probabilities are laid along that spiral, skipping the deserts. That ignores
+ * landProbabilityWhitelists, and any tiles left once the list runs out stay NONE
+ * (CatanMapValidator rejects a list that's too short). Otherwise everything is shuffled. Harbors
+ * are dealt by a {@link HarborDealer}, so they're kept from touching each other where there's room.
+ *
+ * Everything the map implies is worked out once up front, so dealing a board doesn't allocate.
+ * The same seed always deals the same board. Not safe to share between threads, use one per
+ * thread.
+ */
+public final class CatanBoardGenerator {
+    private static final int NONE = CatanBoard.NONE;
+    private static final int NO_PROBABILITY = Integer.MAX_VALUE;
+    private static final int DESERT = Resource.DESERT.ordinal();
+
+    private final CatanMap map;
+    private final SplitMix64 rand = new SplitMix64(0);
+
+    private final int[] fixedResources;
+    private final int[] resourceCounts;
+    private final Whitelisted resourceWhitelisted;
+
+    private final int[] fixedProbabilities;
+    private final int[] probabilityCounts;
+    private final Whitelisted probabilityWhitelisted;
+    private final int[] landGridOrder;
+    private final int[] orderedProbabilities;
+
+    private final HarborDealer harborDealer;
+
+    // Scratch space reused by every deal
+    private final int[] counts;
+    private final int[] pool;
+    private final int[] tiles;
+
+    public CatanBoardGenerator(CatanMap map) {
+        this.map = map;
+        int lands = map.landHexes.length;
+
+        fixedResources = new int[lands];
+        resourceCounts = new int[Resource.values().length];
+        for (Resource resource : map.availableResources) {
+            if (resource != null) {
+                resourceCounts[resource.ordinal()]++;
+            }
+        }
+        for (int i = 0; i < lands; i++) {
+            Resource resource = map.landGridResources[i];
+            fixedResources[i] = resource == null ? NONE : resource.ordinal();
+            // Fixed tiles may or may not be counted in availableResources, take them out if so
+            if (resource != null && resourceCounts[resource.ordinal()] > 0) {
+                resourceCounts[resource.ordinal()]--;
+            }
+        }
+        resourceWhitelisted = new Whitelisted(map, map.whitelistLimitsResources,
+                map.resourceWhitelistMasks);
+
+        int maxProbability = 0;
+        for (int probability : map.availableProbabilities) {
+            maxProbability = Math.max(maxProbability, probability);
+        }
+        fixedProbabilities = new int[lands];
+        probabilityCounts = new int[maxProbability + 1];
+        for (int probability : map.availableProbabilities) {
+            if (probability >= 0) {
+                probabilityCounts[probability]++;
+            }
+        }
+        for (int i = 0; i < lands; i++) {
+            int probability = map.landGridProbabilities[i];
+            fixedProbabilities[i] = probability == NO_PROBABILITY ? NONE : probability;
+            if (probability >= 0 && probability < probabilityCounts.length
+                    && probabilityCounts[probability] > 0) {
+                probabilityCounts[probability]--;
+            }
+        }
+        int[] probabilityMasks = new int[map.probabilityWhitelistMasks.length];
+        for (int id = 0; id < probabilityMasks.length; id++) {
+            probabilityMasks[id] = map.probabilityWhitelistMasks[id] & 0xFFFF;
+        }
+        probabilityWhitelisted = new Whitelisted(map, map.whitelistLimitsProbabilities,
+                probabilityMasks);
+        if (map.landGridOrder != null && map.availableOrderedProbabilities != null) {
+            landGridOrder = map.landGridOrder;
+            orderedProbabilities = map.availableOrderedProbabilities;
+        } else {
+            landGridOrder = null;
+            orderedProbabilities = null;
+        }
+
+        harborDealer = new HarborDealer(map);
+
+        counts = new int[Math.max(resourceCounts.length, probabilityCounts.length)];
+        pool = new int[Math.max(map.availableResources.length, map.availableProbabilities.length)];
+        tiles = new int[lands];
+    }
+
+    public CatanMap getMap() {
+        return map;
+    }
+
+    /** Returns a board sized for this map to deal into. */
+    public CatanBoard newBoard() {
+        return new CatanBoard(map);
+    }
+
+    /** Deals the board for seed into board, overwriting whatever was there. */
+    public void generate(long seed, CatanBoard board) {
+        rand.setSeed(seed);
+        board.seed = seed;
+        dealResources(board.landResources);
+        dealProbabilities(board.landResources, board.landProbabilities);
+        harborDealer.deal(rand, board.harbors, board.harborPositions);
+    }
+
+    private void dealResources(int[] out) {
+        System.arraycopy(fixedResources, 0, out, 0, out.length);
+        System.arraycopy(resourceCounts, 0, counts, 0, resourceCounts.length);
+        dealWhitelisted(out, resourceWhitelisted, resourceCounts.length);
+        dealRest(out, resourceCounts.length, false);
+    }
+
+    private void dealProbabilities(int[] resources, int[] out) {
+        System.arraycopy(fixedProbabilities, 0, out, 0, out.length);
+        System.arraycopy(probabilityCounts, 0, counts, 0, probabilityCounts.length);
+        for (int i = 0; i < out.length; i++) {
+            if (out[i] == NONE && resources[i] == DESERT) {
+                out[i] = 0;
+                if (counts[0] > 0) {
+                    counts[0]--;
+                }
+            }
+        }
+
+        if (orderedProbabilities != null) {
+            int next = 0;
+            for (int land : landGridOrder) {
+                if (out[land] == NONE && next < orderedProbabilities.length) {
+                    out[land] = orderedProbabilities[next++];
+                }
+            }
+            return;
+        }
+
+        // Whitelists only hold up to MAX_WHITELIST_PROBABILITY
+        dealWhitelisted(out, probabilityWhitelisted,
+                Math.min(probabilityCounts.length, CatanMap.MAX_WHITELIST_PROBABILITY + 1));
+        // Only hand out leftover 0s if there's nothing else left
+        dealRest(out, probabilityCounts.length, true);
+    }
+
+    /**
+     * Deals each whitelisted tile that's still open a random piece of what's left in counts that
+     * its whitelist allows, going by the values below values. Tiles nothing is left for stay open.
+     */
+    private void dealWhitelisted(int[] out, Whitelisted whitelisted, int values) {
+        for (int t = 0; t < whitelisted.tiles.length; t++) {
+            int tile = whitelisted.tiles[t];
+            if (out[tile] != NONE) {
+                continue;
+            }
+            int mask = whitelisted.masks[t];
+            int total = 0;
+            for (int value = 0; value < values; value++) {
+                if ((mask & (1 << value)) != 0) {
+                    total += counts[value];
+                }
+            }
+            if (total == 0) {
+                continue;
+            }
+            int r = rand.nextInt(total);
+            for (int value = 0; value < values; value++) {
+                if ((mask & (1 << value)) != 0 && (r -= counts[value]) < 0) {
+                    counts[value]--;
+                    out[tile] = value;
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Shuffles whatever is left in counts onto the tiles that are still open. */
+    private void dealRest(int[] out, int values, boolean zeroLast) {
+        int open = 0;
+        for (int i = 0; i < out.length; i++) {
+            if (out[i] == NONE) {
+                tiles[open++] = i;
+            }
+        }
+
+        int m = 0;
+        for (int value = zeroLast ? 1 : 0; value < values; value++) {
+            for (int c = counts[value]; c > 0; c--) {
+                pool[m++] = value;
+            }
+        }
+        if (zeroLast && m < open) {
+            for (int c = counts[0]; c > 0; c--) {
+                pool[m++] = 0;
+            }
+        }
+
+        for (int i = 0; i < open && i < m; i++) {
+            swap(pool, i, i + rand.nextInt(m - i));
+            out[tiles[i]] = pool[i];
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    /**
+     * The land tiles whose whitelist limits this kind of value, along with the whitelist's mask
+     * of the values each one allows, grouped by whitelist id so a seed always deals the same board.
+     */
+    private static final class Whitelisted {
+        final int[] tiles;
+        final int[] masks;
+
+        Whitelisted(CatanMap map, boolean[] limits, int[] whitelistMasks) {
+            int lands = map.landHexes.length;
+            int[] ids = map.landGridWhitelistIds;
+
+            // Counting sort the tiles by whitelist id
+            int[] starts = new int[limits.length + 1];
+            for (int i = 0; i < lands; i++) {
+                if (ids[i] != CatanMap.NO_WHITELIST && limits[ids[i]]) {
+                    starts[ids[i] + 1]++;
+                }
+            }
+            for (int id = 0; id < limits.length; id++) {
+                starts[id + 1] += starts[id];
+            }
+            tiles = new int[starts[limits.length]];
+            masks = new int[tiles.length];
+            for (int i = 0; i < lands; i++) {
+                if (ids[i] != CatanMap.NO_WHITELIST && limits[ids[i]]) {
+                    int t = starts[ids[i]]++;
+                    tiles[t] = i;
+                    masks[t] = whitelistMasks[ids[i]];
+                }
+            }
+        }
+    }
+}
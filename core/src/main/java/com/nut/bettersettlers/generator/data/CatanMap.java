@@ -0,0 +1,1128 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class CatanMap {
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    /** Marks a land tile without a whitelist in landGridWhitelistIds. */
+    public static final int NO_WHITELIST = -1;
+
+    /** The biggest probability a whitelist's mask can hold. */
+    public static final int MAX_WHITELIST_PROBABILITY = 15;
+
+    /** The name of this map. */
+    public final String name;
+
+    /** The display title of this map. */
+    public final String title;
+
+    /** How many rocks/clays there are available on to distribute. */
+    public final int lowResourceNumber;
+
+    /** How many wheats/woods/sheep there are available on to distribute. */
+    public final int highResourceNumber;
+
+    /** The assigned probability for each point (if it exists). */
+    public final int[] landGridProbabilities;
+
+    /** The assigned resource for each point (if it exists). */
+    public final Resource[] landGridResources;
+
+    /** The packed (x,y) coordinates (see {@link Hex}) of the each land hexagon. */
+    public final int[] landHexes;
+
+    /** The (x,y) coordinates of the each land hexagon. A view over landHexes. */
+    public final Point[] landGrid;
+
+    /** The list of whitelists for each point (if it exists). */
+    public final String[] landGridWhitelists;
+
+    /** The whitelist of resources that can be on a certain land grid piece */
+    public final Map<String, List<Resource>> landResourceWhitelists;
+
+    /** The whitelist of probabilities that can be on a certain land grid piece */
+    public final Map<String, List<Integer>> landProbabilityWhitelists;
+
+    /** The names of the whitelists the land uses, indexed by id. Interned from landGridWhitelists. */
+    public final String[] whitelistNames;
+
+    /** The id of each land piece's whitelist (see whitelistNames), or NO_WHITELIST. */
+    public final int[] landGridWhitelistIds;
+
+    /** Whether each whitelist (by id) limits resources, that is has a landResourceWhitelists entry. */
+    public final boolean[] whitelistLimitsResources;
+
+    /** Whether each whitelist (by id) limits probabilities, that is has a landProbabilityWhitelists entry. */
+    public final boolean[] whitelistLimitsProbabilities;
+
+    /**
+     * The resources each whitelist (by id) allows, with bit r set if the Resource with ordinal r
+     * is. Every bit is set if the whitelist doesn't limit resources.
+     */
+    public final int[] resourceWhitelistMasks;
+
+    /**
+     * The probabilities each whitelist (by id) allows, with bit n set if n is. Every bit is set if
+     * the whitelist doesn't limit probabilities, so check whitelistLimitsProbabilities to tell that
+     * apart from one allowing all of 0-15.
+     */
+    public final short[] probabilityWhitelistMasks;
+
+    /** The order in which the land grid is laid out. */
+    public final int[] landGridOrder;
+
+    /** The packed (x,y) coordinates (see {@link Hex}) of each water hexagon. */
+    public final int[] waterHexes;
+
+    /** The (x,y) coordinates of each water hexagon. A view over waterHexes. */
+    public final Point[] waterGrid;
+
+    /**
+     * This list contains 2 or 3 numbers that are the possible corners that the lines can go to
+     * (half only touch two at 2 corners and half touch at 3 corners).  0 is the TL corner, 1
+     * is the top corner, 2 is the TR corner, and so forth clockwise around the hexagon to 5 (BL).
+     */
+    public final IntTable harborLines;
+
+    /**
+     * This list of lists contains the land tiles that each land tile is neighbors with.
+     * The land tiles are numbered 0-18 starting at the TL corner and going L -> R, T -> B.
+     */
+    public final IntTable landNeighbors;
+
+    /**
+     * This list of lists contains the land tiles that each ocean tile is neighbors with.
+     * The ocean tiles are (similar to everywhere else) numbered starting at the TL ocean
+     * tile and going around clockwise 0-17.  The land tiles are (similar to everywhere else)
+     * numbered 0-18 starting at the TL land tile and going L -> R, T -> B.
+     * Note that the numbers are not small to large but are numbered clockwise by whichever land
+     * tile is earliest on in the clockwise rotation (starting in the TL corner).
+     */
+    public final IntTable waterNeighbors;
+
+    /**
+     * This list of list is like waterNeighbors except it contains the ocean tiles each ocean tile
+     * is neighbors with (not including itself)
+     */
+    public final IntTable waterWaterNeighbors;
+
+    /**
+     * "Triplets" are defined as three terrain tiles that come together at an intersection
+     * (ports do not count). These are ordered starting in the TL corner going L -> R, T -> B
+     * (going straight across such that the top three terrain tiles are the "top two" for the
+     * first triplets. These are defined so that we can make sure no single settlement placement
+     * is too amazing.
+     */
+    public final int[][] landIntersections;
+
+    /** This is a mapping between STANDARD_LAND_GRID and STANDARD_LAND_INTERSECTIONS. */
+    public final IntTable landIntersectionIndexes;
+
+    /** 
+     * This is a way to identify places in between the hexes. This is not a unique mapping, but
+     * the X represents which hex its referring to and the Y represents which direction off of
+     * the hex its pointing.
+     */
+    public final int[][] placementIndexes;
+
+    /** List of how many of each resource this type of board contains. */
+    public final Resource[] availableResources;
+
+    /** List of how many of each probability this type of board contains. */
+    public final int[] availableProbabilities;
+
+    /** List of how many of each probability this type of board contains. */
+    public final int[] availableOrderedProbabilities;
+
+    /** List of how many of harbors there are (desert is 3:1). */
+    public final Resource[] availableHarbors;
+
+    /** Hardcoded directions of harbors on "traditional" maps.  Hardcoded since they're weird. */
+    public final int[] orderedHarbors;
+
+    /** The packed (x,y) coordinates (see {@link Hex}) of the each unknown hexagon. */
+    public final int[] unknownHexes;
+
+    /** The (x,y) coordinates of the each unknown hexagon. A view over unknownHexes. */
+    public final Point[] unknownGrid;
+
+    /** List of how many of each resource this type of board contains for unknown only. */
+    public final Resource[] availableUnknownResources;
+
+    /** List of how many of each probability this type of board contains for unknown only. */
+    public final int[] availableUnknownProbabilities;
+
+    /**
+     * Which placement directions around each land piece are disallowed, as a mask per piece with
+     * bit d set if direction d (0-5) is.
+     */
+    public final byte[] placementBlacklists;
+
+    /** How many land tiles were converted to water (land_water), 0 if none were. */
+    public final int landWater;
+
+    /**
+     * The seed the land converted to water was picked with, so we can keep the same map for New
+     * World on a rotation by saving just this. 0 for maps made again from an old theft order.
+     */
+    public final long landWaterSeed;
+
+    /**
+     * Whether the land converted to water was picked from an old theft order rather than with
+     * landWaterSeed. The seed doesn't make these maps again, so they can't be written out.
+     */
+    public final boolean fromTheftOrder;
+
+    private CatanMap(Builder builder) {
+        this.name = builder.name;
+        this.title = builder.title;
+        this.lowResourceNumber = builder.lowResourceNumber;
+        this.highResourceNumber = builder.highResourceNumber;
+        this.landGridProbabilities = builder.landGridProbabilities;
+        this.landGridResources = builder.landGridResources;
+        this.landHexes = builder.landHexes;
+        this.landGrid = Hex.toPoints(builder.landHexes);
+        this.landGridWhitelists = builder.landGridWhitelists;
+        this.landResourceWhitelists = builder.landResourceWhitelists;
+        this.landProbabilityWhitelists = builder.landProbabilityWhitelists;
+        this.landGridOrder = builder.landGridOrder;
+        this.waterHexes = builder.waterHexes;
+        this.waterGrid = Hex.toPoints(builder.waterHexes);
+        this.harborLines = builder.harborLines;
+        this.landNeighbors = builder.landNeighbors;
+        this.waterNeighbors = builder.waterNeighbors;
+        this.waterWaterNeighbors = builder.waterWaterNeighbors;
+        this.landIntersections = builder.landIntersections;
+        this.landIntersectionIndexes = builder.landIntersectionIndexes;
+        this.placementIndexes = builder.placementIndexes;
+        this.availableResources = builder.availableResources;
+        this.availableProbabilities = builder.availableProbabilities;
+        this.availableOrderedProbabilities = builder.availableOrderedProbabilities;
+        this.availableHarbors = builder.availableHarbors;
+        this.orderedHarbors = builder.orderedHarbors;
+        this.unknownHexes = builder.unknownHexes;
+        this.unknownGrid = Hex.toPoints(builder.unknownHexes);
+        this.availableUnknownResources = builder.availableUnknownResources;
+        this.availableUnknownProbabilities = builder.availableUnknownProbabilities;
+        this.placementBlacklists = builder.placementBlacklists;
+        this.landWater = builder.landWater;
+        this.landWaterSeed = builder.landWaterSeed;
+        this.fromTheftOrder = builder.fromTheftOrder;
+
+        // Intern the whitelist names so checking a tile against its whitelist is just a mask
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        String[] grid = landGridWhitelists == null ? new String[0] : landGridWhitelists;
+        List<String> names = new ArrayList<String>();
+        this.landGridWhitelistIds = new int[grid.length];
+        for (int i = 0; i < grid.length; i++) {
+            Integer id = grid[i] == null ? null : ids.get(grid[i]);
+            if (grid[i] != null && id == null) {
+                id = names.size();
+                ids.put(grid[i], id);
+                names.add(grid[i]);
+            }
+            landGridWhitelistIds[i] = id == null ? NO_WHITELIST : id;
+        }
+        this.whitelistNames = names.toArray(new String[names.size()]);
+        this.whitelistLimitsResources = new boolean[whitelistNames.length];
+        this.whitelistLimitsProbabilities = new boolean[whitelistNames.length];
+        this.resourceWhitelistMasks = new int[whitelistNames.length];
+        this.probabilityWhitelistMasks = new short[whitelistNames.length];
+        for (int id = 0; id < whitelistNames.length; id++) {
+            List<Resource> resources = landResourceWhitelists == null ? null : landResourceWhitelists.get(whitelistNames[id]);
+            whitelistLimitsResources[id] = resources != null;
+            resourceWhitelistMasks[id] = resources == null ? -1 : 0;
+            if (resources != null) {
+                for (Resource resource : resources) {
+                    if (resource != null) {
+                        resourceWhitelistMasks[id] |= 1 << resource.ordinal();
+                    }
+                }
+            }
+
+            List<Integer> probabilities = landProbabilityWhitelists == null ? null : landProbabilityWhitelists.get(whitelistNames[id]);
+            whitelistLimitsProbabilities[id] = probabilities != null;
+            int mask = probabilities == null ? -1 : 0;
+            if (probabilities != null) {
+                for (int probability : probabilities) {
+                    if (probability > MAX_WHITELIST_PROBABILITY) {
+                        throw new IllegalArgumentException("Whitelist " + whitelistNames[id] + " has probability "
+                                + probability + ", over " + MAX_WHITELIST_PROBABILITY);
+                    }
+                    if (probability >= 0) {
+                        mask |= 1 << probability;
+                    }
+                }
+            }
+            probabilityWhitelistMasks[id] = (short) mask;
+        }
+    }
+
+    /** Returns whether the land piece's whitelist (if it has one) allows resource. */
+    public boolean canTakeResource(int land, Resource resource) {
+        int id = landGridWhitelistIds[land];
+        return id == NO_WHITELIST || (resourceWhitelistMasks[id] & (1 << resource.ordinal())) != 0;
+    }
+
+    /**
+     * Returns whether the land piece's whitelist (if it has one) allows probability. Whitelists
+     * only hold up to MAX_WHITELIST_PROBABILITY, so anything over that is only allowed on land
+     * whose probabilities aren't limited.
+     */
+    public boolean canTakeProbability(int land, int probability) {
+        if (probability < 0) {
+            throw new IllegalArgumentException("Probability out of range: " + probability);
+        }
+        int id = landGridWhitelistIds[land];
+        if (id == NO_WHITELIST || !whitelistLimitsProbabilities[id]) {
+            return true;
+        }
+        return probability <= MAX_WHITELIST_PROBABILITY && (probabilityWhitelistMasks[id] & (1 << probability)) != 0;
+    }
+
+    /** Returns whether placing in direction (0-5) off of the land piece is disallowed. */
+    public boolean isPlacementBlacklisted(int land, int direction) {
+        return (placementBlacklists[land] & (1 << direction)) != 0;
+    }
+
+    /** How the generated CatanMapProvider builds the map. */
+    public enum ClassStyle {
+        /** Every array written out as a literal in init(), which is easy to read. */
+        LITERAL,
+
+        /**
+         * Arrays packed into string constants and decoded in init(), so big maps stay well
+         * under the method size limit and the class loads quickly (see CompactClassWriter).
+         */
+        COMPACT,
+
+        /**
+         * Packed like COMPACT, but the name, title, resource numbers and grids are available
+         * without building the map, and the map is only built (once, thread-safely) the first
+         * time init() is called. Listing maps then doesn't cost building each of them.
+         */
+        LAZY
+    }
+
+    /** The package and imports every generated CatanMapProvider starts with. */
+    static final String CLASS_HEADER = "package com.nut.bettersettlers.data.maps;\n"
+            + "\n"
+            + "import java.util.ArrayList;\n"
+            + "import java.util.HashMap;\n"
+            + "import java.util.Map;\n"
+            + "import java.util.List;\n"
+            + "\n"
+            + "import android.graphics.Point;\n"
+            + "\n"
+            + "import com.nut.bettersettlers.data.CatanMap;\n"
+            + "import com.nut.bettersettlers.data.Resource;\n"
+            + "\n";
+
+    private static void writeHexes(Writer out, int[] hexes, String tab) throws IOException {
+        if (hexes.length == 0) {
+            out.write("new Point[] {}");
+            return;
+        }
+
+        out.write("new Point[] {\n");
+        for (int i = 0; i < hexes.length; i++) {
+            out.write(tab);
+            out.write("    new Point(");
+            out.write(Integer.toString(Hex.x(hexes[i])));
+            out.write(", ");
+            out.write(Integer.toString(Hex.y(hexes[i])));
+            // Last one has no comma
+            out.write(i < hexes.length - 1 ? "),\n" : ")\n");
+        }
+        out.write(tab);
+        out.write("}");
+    }
+
+    private static void writeStrings(Writer out, String[] strings, String tab) throws IOException {
+        out.write("new String[] {\n");
+        for (int i = 0; i < strings.length; i++) {
+            out.write(tab);
+            if (strings[i] != null) {
+                out.write("    \"");
+                out.write(strings[i]);
+                out.write("\"");
+            } else {
+                out.write("    null");
+            }
+            // Last one has no comma
+            out.write(i < strings.length - 1 ? ",\n" : "\n");
+        }
+        out.write(tab);
+        out.write("}");
+    }
+
+    private static void writeInts(Writer out, int[] ints, String tab) throws IOException {
+        if (ints.length == 0) {
+            out.write("new int[] {}");
+            return;
+        }
+
+        out.write("new int[] {\n");
+        for (int i = 0; i < ints.length; i++) {
+            out.write(tab);
+            out.write("    ");
+            out.write(Integer.toString(ints[i]));
+            // Last one has no comma
+            out.write(i < ints.length - 1 ? ",\n" : "\n");
+        }
+        out.write(tab);
+        out.write("}");
+    }
+
+    private static void writeDoubleInts(Writer out, int[][] doubleInts, String tab) throws IOException {
+        out.write("new int[][] {\n");
+        for (int i = 0; i < doubleInts.length; i++) {
+            out.write(tab);
+            if (doubleInts[i] == null) {
+                out.write("    null");
+            } else if (doubleInts[i].length == 0) {
+                out.write("    new int[] {}");
+            } else {
+                out.write("    new int[] { ");
+                for (int j = 0; j < doubleInts[i].length; j++) {
+                    if (j > 0) {
+                        out.write(", ");
+                    }
+                    out.write(Integer.toString(doubleInts[i][j]));
+                }
+                out.write(" }");
+            }
+            // Last one has no comma
+            out.write(i < doubleInts.length - 1 ? ",\n" : "\n");
+        }
+        out.write(tab);
+        out.write("}");
+    }
+
+    private static void writeDoubleInts(Writer out, IntTable table, String tab) throws IOException {
+        out.write("new int[][] {\n");
+        for (int i = 0; i < table.rows(); i++) {
+            out.write(tab);
+            if (table.isNull(i)) {
+                out.write("    null");
+            } else if (table.rowLength(i) == 0) {
+                out.write("    new int[] {}");
+            } else {
+                out.write("    new int[] { ");
+                for (int j = table.start(i); j < table.end(i); j++) {
+                    if (j > table.start(i)) {
+                        out.write(", ");
+                    }
+                    out.write(Integer.toString(table.value(j)));
+                }
+                out.write(" }");
+            }
+            // Last one has no comma
+            out.write(i < table.rows() - 1 ? ",\n" : "\n");
+        }
+        out.write(tab);
+        out.write("}");
+    }
+
+    private static void writeResources(Writer out, Resource[] resources, String tab) throws IOException {
+        if (resources.length == 0) {
+            out.write("new Resource[] {}");
+            return;
+        }
+
+        out.write("new Resource[] {\n");
+        for (int i = 0; i < resources.length; i++) {
+            out.write(tab);
+            if (resources[i] != null) {
+                out.write("    Resource.");
+                out.write(resources[i].name());
+            } else {
+                out.write("    null");
+            }
+            // Last one has no comma
+            out.write(i < resources.length - 1 ? ",\n" : "\n");
+        }
+        out.write(tab);
+        out.write("}");
+    }
+
+    static void writeResourceMap(Writer out, Map<String, List<Resource>> map, String tab)
+            throws IOException {
+        out.write("\n");
+        out.write(tab);
+        out.write("Map<String, List<Resource>> landResourceWhitelists = new HashMap<String, List<Resource>>(");
+        out.write(Integer.toString(map.size()));
+        out.write(");\n");
+
+        for (Map.Entry<String, List<Resource>> entry : map.entrySet()) {
+            out.write(tab);
+            out.write("List<Resource> ");
+            out.write(entry.getKey());
+            out.write(" = new ArrayList<Resource>(");
+            out.write(Integer.toString(entry.getValue().size()));
+            out.write(");\n");
+            for (Resource res : entry.getValue()) {
+                out.write(tab);
+                out.write(entry.getKey());
+                out.write(".add(Resource.");
+                out.write(res.name());
+                out.write(");\n");
+            }
+            out.write(tab);
+            out.write("landResourceWhitelists.put(\"");
+            out.write(entry.getKey());
+            out.write("\", ");
+            out.write(entry.getKey());
+            out.write(");\n");
+        }
+        out.write(tab);
+        out.write("builder.setLandResourceWhitelists(landResourceWhitelists);\n");
+    }
+
+    static void writeIntMap(Writer out, Map<String, List<Integer>> map, String tab)
+            throws IOException {
+        out.write("\n");
+        out.write(tab);
+        out.write("Map<String, List<Integer>> landProbabilityWhitelists = new HashMap<String, List<Integer>>(");
+        out.write(Integer.toString(map.size()));
+        out.write(");\n");
+
+        for (Map.Entry<String, List<Integer>> entry : map.entrySet()) {
+            out.write(tab);
+            out.write("List<Integer> ");
+            out.write(entry.getKey());
+            out.write(" = new ArrayList<Integer>(");
+            out.write(Integer.toString(entry.getValue().size()));
+            out.write(");\n");
+            for (int num : entry.getValue()) {
+                out.write(tab);
+                out.write(entry.getKey());
+                out.write(".add(");
+                out.write(Integer.toString(num));
+                out.write(");\n");
+            }
+            out.write(tab);
+            out.write("landProbabilityWhitelists.put(\"");
+            out.write(entry.getKey());
+            out.write("\", ");
+            out.write(entry.getKey());
+            out.write(");\n");
+        }
+        out.write(tab);
+        out.write("builder.setLandProbabilityWhitelists(landProbabilityWhitelists);\n");
+    }
+
+    private static void writeBytes(Writer out, byte[] bytes) throws IOException {
+        if (bytes.length == 0) {
+            out.write("new byte[] {}");
+            return;
+        }
+
+        out.write("new byte[] { ");
+        for (int i = 0; i < bytes.length; i++) {
+            if (i > 0) {
+                out.write(", ");
+            }
+            out.write(Byte.toString(bytes[i]));
+        }
+        out.write(" }");
+    }
+
+    /** Writes a builder call like ".setLandGrid(...)" on its own line. */
+    private static void writeSetter(Writer out, String setter) throws IOException {
+        out.write("            .");
+        out.write(setter);
+        out.write("(");
+    }
+
+    public String toClassString(String className) {
+        StringWriter out = new StringWriter();
+        try {
+            writeClass(className, out);
+        } catch (IOException e) {
+            // StringWriter doesn't throw
+            throw new AssertionError(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the CatanMapProvider source for this map as UTF-8. Goes through a fixed size buffer,
+     * so this never holds the whole class in memory. Flushes but doesn't close os.
+     */
+    public void writeClass(String className, OutputStream os) throws IOException {
+        writeClass(className, ClassStyle.LITERAL, os);
+    }
+
+    /** Same as {@link #writeClass(String, OutputStream)}, in the given style. */
+    public void writeClass(String className, ClassStyle style, OutputStream os) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(os, Charset.forName("UTF-8").newEncoder()),
+                WRITE_BUFFER_SIZE);
+        writeClass(className, style, out);
+        out.flush();
+    }
+
+    /** Writes the CatanMapProvider source for this map to out. */
+    public void writeClass(String className, Writer out) throws IOException {
+        writeClass(className, ClassStyle.LITERAL, out);
+    }
+
+    /**
+     * Writes the CatanMapProvider source for this map to out, in the given style. Throws
+     * IllegalStateException for maps made from a theft order, since the class would give them a
+     * landWaterSeed that doesn't make them again.
+     */
+    public void writeClass(String className, ClassStyle style, Writer out) throws IOException {
+        if (fromTheftOrder) {
+            throw new IllegalStateException(name + " was made from a theft order, it has no seed to write");
+        }
+        if (style == ClassStyle.COMPACT) {
+            CompactClassWriter.write(this, className, out);
+            return;
+        }
+        if (style == ClassStyle.LAZY) {
+            CompactClassWriter.writeLazy(this, className, out);
+            return;
+        }
+
+        String tab = "            ";
+        out.write(CLASS_HEADER);
+        out.write("public class ");
+        out.write(className);
+        out.write(" extends CatanMapProvider {\n"
+                + "    @Override\n"
+                + "    public CatanMap init() {\n"
+                + "        CatanMap.Builder builder = CatanMap.newBuilder()\n");
+        writeSetter(out, "setName");
+        out.write("\"");
+        out.write(name);
+        out.write("\")\n");
+        writeSetter(out, "setTitle");
+        out.write("\"");
+        out.write(title);
+        out.write("\")\n");
+        writeSetter(out, "setLowResourceNumber");
+        out.write(Integer.toString(lowResourceNumber));
+        out.write(")\n");
+        writeSetter(out, "setHighResourceNumber");
+        out.write(Integer.toString(highResourceNumber));
+        out.write(")\n");
+        writeSetter(out, "setLandGrid");
+        writeHexes(out, landHexes, tab);
+        out.write(")\n");
+        writeSetter(out, "setLandGridWhitelists");
+        writeStrings(out, landGridWhitelists, tab);
+        out.write(")\n");
+        writeSetter(out, "setLandGridProbabilities");
+        writeInts(out, landGridProbabilities, tab);
+        out.write(")\n");
+        writeSetter(out, "setLandGridResources");
+        writeResources(out, landGridResources, tab);
+        out.write(")\n");
+        writeSetter(out, "setWaterGrid");
+        writeHexes(out, waterHexes, tab);
+        out.write(")\n");
+        writeSetter(out, "setHarborLines");
+        writeDoubleInts(out, harborLines, tab);
+        out.write(")\n");
+        writeSetter(out, "setLandNeighbors");
+        writeDoubleInts(out, landNeighbors, tab);
+        out.write(")\n");
+        writeSetter(out, "setWaterNeighbors");
+        writeDoubleInts(out, waterNeighbors, tab);
+        out.write(")\n");
+        writeSetter(out, "setWaterWaterNeighbors");
+        writeDoubleInts(out, waterWaterNeighbors, tab);
+        out.write(")\n");
+        writeSetter(out, "setLandIntersections");
+        writeDoubleInts(out, landIntersections, tab);
+        out.write(")\n");
+        writeSetter(out, "setLandIntersectionIndexes");
+        writeDoubleInts(out, landIntersectionIndexes, tab);
+        out.write(")\n");
+        writeSetter(out, "setPlacementIndexes");
+        writeDoubleInts(out, placementIndexes, tab);
+        out.write(")\n");
+        writeSetter(out, "setAvailableResources");
+        writeResources(out, availableResources, tab);
+        out.write(")\n");
+        writeSetter(out, "setAvailableProbabilities");
+        writeInts(out, availableProbabilities, tab);
+        out.write(")\n");
+        writeSetter(out, "setAvailableHarbors");
+        writeResources(out, availableHarbors, tab);
+        out.write(")\n");
+        writeSetter(out, "setAvailableUnknownResources");
+        writeResources(out, availableUnknownResources, tab);
+        out.write(")\n");
+        writeSetter(out, "setAvailableUnknownProbabilities");
+        writeInts(out, availableUnknownProbabilities, tab);
+        out.write(")\n");
+        writeSetter(out, "setUnknownGrid");
+        writeHexes(out, unknownHexes, tab);
+        out.write(");\n");
+        writeResourceMap(out, landResourceWhitelists, "        ");
+        out.write("\n");
+        writeIntMap(out, landProbabilityWhitelists, "        ");
+        out.write("\n");
+        out.write("\n        builder.setPlacementBlacklists(");
+        writeBytes(out, placementBlacklists);
+        out.write(");\n");
+        out.write("\n");
+
+        if (landGridOrder != null) {
+            out.write("        builder.setLandGridOrder(");
+            writeInts(out, landGridOrder, tab);
+            out.write(");\n");
+        }
+        if (availableOrderedProbabilities != null) {
+            out.write("        builder.setAvailableOrderedProbabilities(");
+            writeInts(out, availableOrderedProbabilities, tab);
+            out.write(");\n");
+        }
+        if (orderedHarbors != null) {
+            out.write("        builder.setOrderedHarbors(");
+            writeInts(out, orderedHarbors, tab);
+            out.write(");\n");
+        }
+        if (landWater > 0) {
+            out.write("        builder.setLandWater(");
+            out.write(Integer.toString(landWater));
+            out.write(")\n");
+            out.write("            .setLandWaterSeed(");
+            out.write(Long.toString(landWaterSeed));
+            out.write("L);\n");
+        }
+
+        out.write("        return builder.build();\n"
+                + "    }\n"
+                + "}\n");
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("[Settlers Map: (").append(name).append(")").append("\n")
+                .append("  Low Resource Number: ").append(lowResourceNumber).append("\n")
+                .append("  High Resource Number: ").append(highResourceNumber).append("\n")
+                .append("  Land Grid: ").append(Arrays.toString(landGrid)).append("\n")
+                .append("  Land Grid Whitelist: ").append(Arrays.toString(landGridWhitelists)).append("\n")
+                .append("  Land Grid Probabilities: ").append(Arrays.toString(landGridProbabilities)).append("\n")
+                .append("  Land Grid Resources: ").append(Arrays.toString(landGridResources)).append("\n")
+                .append("  Land Resource Whitelist: ").append(landResourceWhitelists).append("\n")
+                .append("  Land Probability Whitelist: ").append(landProbabilityWhitelists).append("\n")
+                .append("  Land Grid Order: ").append(Arrays.toString(landGridOrder)).append("\n")
+                .append("  Water Grid: ").append(Arrays.toString(waterGrid)).append("\n")
+                .append("  Harbor Lines: ").append(harborLines).append("\n")
+                .append("  Unknown Grid: ").append(Arrays.toString(unknownGrid)).append("\n")
+                .append("  Land Neighbors: ").append(landNeighbors).append("\n")
+                .append("  Water Neighbors: ").append(waterNeighbors).append("\n")
+                .append("  Water Water Neighbors: ").append(waterWaterNeighbors).append("\n")
+                .append("  Land Intersections: ").append(Arrays.deepToString(landIntersections)).append("\n")
+                .append("  Land Intersections Size: ").append(landIntersections.length).append("\n")
+                .append("  Land Intersection Indexes: ").append(landIntersectionIndexes).append("\n")
+                .append("  Placement Indexes: ").append(Arrays.deepToString(placementIndexes)).append("\n")
+                .append("  Placement Indexes Size: ").append(placementIndexes.length).append("\n")
+                .append("  Available Resources: ").append(Arrays.toString(availableResources)).append("\n")
+                .append("  Available Unknown Resources: ").append(Arrays.toString(availableUnknownResources)).append("\n")
+                .append("  Available Unknown Probabilities: ").append(Arrays.toString(availableUnknownProbabilities)).append("\n")
+                .append("  Available Probabilities: ").append(Arrays.toString(availableProbabilities)).append("\n")
+                .append("  Available Ordered Probabilities: ").append(Arrays.toString(availableOrderedProbabilities)).append("\n")
+                .append("  Available Harbors: ").append(Arrays.toString(availableHarbors)).append("\n")
+                .append("  Ordered Harbors: ").append(Arrays.toString(orderedHarbors)).append("\n")
+                .append("  Placement Blacklists: ").append(Arrays.toString(placementBlacklists)).append("\n")
+                .append("  Land Water: ").append(landWater).append("\n")
+                .append("  Land Water Seed: ").append(landWaterSeed).append("\n")
+                .append("  From Theft Order: ").append(fromTheftOrder).append("\n")
+                .append("]")
+                .toString();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String name;
+        private String title;
+        private int lowResourceNumber;
+        private int highResourceNumber;
+        private int[] landGridProbabilities;
+        private Resource[] landGridResources;
+        private int[] landHexes;
+        private String[] landGridWhitelists;
+        private Map<String, List<Resource>> landResourceWhitelists;
+        private Map<String, List<Integer>> landProbabilityWhitelists;
+        private int[] landGridOrder;
+        private int[] waterHexes;
+        private IntTable harborLines;
+        private IntTable landNeighbors;
+        private IntTable waterNeighbors;
+        private IntTable waterWaterNeighbors;
+        private int[][] landIntersections;
+        private IntTable landIntersectionIndexes;
+        private int[][] placementIndexes;
+        private Resource[] availableResources;
+        private int[] availableProbabilities;
+        private int[] availableOrderedProbabilities;
+        private Resource[] availableHarbors;
+        private int[] orderedHarbors;
+        private int[] unknownHexes;
+        private Resource[] availableUnknownResources;
+        private int[] availableUnknownProbabilities;
+        private byte[] placementBlacklists;
+        private int landWater;
+        private long landWaterSeed;
+        private boolean fromTheftOrder;
+
+        private Builder() {}
+
+        public CatanMap build() {
+            return new CatanMap(this);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public int getLowResourceNumber() {
+            return lowResourceNumber;
+        }
+
+        public int getHighResourceNumber() {
+            return highResourceNumber;
+        }
+
+        public int[] getLandGridProbabilities() {
+            return landGridProbabilities;
+        }
+
+        public Resource[] getLandGridResources() {
+            return landGridResources;
+        }
+
+        public int[] getLandHexes() {
+            return landHexes;
+        }
+
+        public Point[] getLandGrid() {
+            return Hex.toPoints(landHexes);
+        }
+
+        public String[] getLandGridWhitelists() {
+            return landGridWhitelists;
+        }
+
+        public Map<String, List<Resource>> getLandResourceWhitelists() {
+            return landResourceWhitelists;
+        }
+
+        public Map<String, List<Integer>> getLandProbabilityWhitelists() {
+            return landProbabilityWhitelists;
+        }
+
+        public int[] getLandGridOrder() {
+            return landGridOrder;
+        }
+
+        public int[] getWaterHexes() {
+            return waterHexes;
+        }
+
+        public Point[] getWaterGrid() {
+            return Hex.toPoints(waterHexes);
+        }
+
+        public IntTable getHarborLines() {
+            return harborLines;
+        }
+
+        public IntTable getLandNeighbors() {
+            return landNeighbors;
+        }
+
+        public IntTable getWaterNeighbors() {
+            return waterNeighbors;
+        }
+
+        public IntTable getWaterWaterNeighbors() {
+            return waterWaterNeighbors;
+        }
+
+        public int[][] getLandIntersections() {
+            return landIntersections;
+        }
+
+        public IntTable getLandIntersectionIndexes() {
+            return landIntersectionIndexes;
+        }
+
+        public int[][] getPlacementIndexes() {
+            return placementIndexes;
+        }
+
+        public Resource[] getAvailableResources() {
+            return availableResources;
+        }
+
+        public int[] getAvailableProbabilities() {
+            return availableProbabilities;
+        }
+
+        public int[] getAvailableOrderedProbabilities() {
+            return availableOrderedProbabilities;
+        }
+
+        public Resource[] getAvailableHarbors() {
+            return availableHarbors;
+        }
+
+        public int[] getOrderedHarbors() {
+            return orderedHarbors;
+        }
+
+        public int[] getUnknownHexes() {
+            return unknownHexes;
+        }
+
+        public Point[] getUnknownGrid() {
+            return Hex.toPoints(unknownHexes);
+        }
+
+        public Resource[] getAvailableUnknownResources() {
+            return availableUnknownResources;
+        }
+
+        public int[] getAvailableUnknownProbabilities() {
+            return availableUnknownProbabilities;
+        }
+
+        public byte[] getPlacementBlacklists() {
+            return placementBlacklists;
+        }
+
+        public int getLandWater() {
+            return landWater;
+        }
+
+        public long getLandWaterSeed() {
+            return landWaterSeed;
+        }
+
+        public boolean isFromTheftOrder() {
+            return fromTheftOrder;
+        }
+
+        public Builder setName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder setTitle(String title) {
+            this.title = title;
+            return this;
+        }
+
+        public Builder setLowResourceNumber(int lowResourceNumber) {
+            this.lowResourceNumber = lowResourceNumber;
+            return this;
+        }
+
+        public Builder setHighResourceNumber(int highResourceNumber) {
+            this.highResourceNumber = highResourceNumber;
+            return this;
+        }
+
+        public Builder setLandGridProbabilities(int[] landGridProbabilities) {
+            this.landGridProbabilities = landGridProbabilities;
+            return this;
+        }
+
+        public Builder setLandGridResources(Resource[] landGridResources) {
+            this.landGridResources = landGridResources;
+            return this;
+        }
+
+        public Builder setLandHexes(int[] landHexes) {
+            this.landHexes = landHexes;
+            return this;
+        }
+
+        public Builder setLandGrid(Point[] landGrid) {
+            this.landHexes = Hex.fromPoints(landGrid);
+            return this;
+        }
+
+        public Builder setLandGridWhitelists(String[] landGridWhitelists) {
+            this.landGridWhitelists = landGridWhitelists;
+            return this;
+        }
+
+        public Builder setLandResourceWhitelists(
+                                        Map<String, List<Resource>> landResourceWhitelists) {
+            this.landResourceWhitelists = landResourceWhitelists;
+            return this;
+        }
+
+        public Builder setLandProbabilityWhitelists(
+                                        Map<String, List<Integer>> landProbabilityWhitelists) {
+            this.landProbabilityWhitelists = landProbabilityWhitelists;
+            return this;
+        }
+
+        public Builder setLandGridOrder(int[] landGridOrder) {
+            this.landGridOrder = landGridOrder;
+            return this;
+        }
+
+        public Builder setWaterHexes(int[] waterHexes) {
+            this.waterHexes = waterHexes;
+            return this;
+        }
+
+        public Builder setWaterGrid(Point[] waterGrid) {
+            this.waterHexes = Hex.fromPoints(waterGrid);
+            return this;
+        }
+
+        public Builder setHarborLines(int[][] harborLines) {
+            this.harborLines = IntTable.of(harborLines);
+            return this;
+        }
+
+        public Builder setHarborLines(IntTable harborLines) {
+            this.harborLines = harborLines;
+            return this;
+        }
+
+        public Builder setLandNeighbors(int[][] landNeighbors) {
+            this.landNeighbors = IntTable.of(landNeighbors);
+            return this;
+        }
+
+        public Builder setLandNeighbors(IntTable landNeighbors) {
+            this.landNeighbors = landNeighbors;
+            return this;
+        }
+
+        public Builder setWaterNeighbors(int[][] waterNeighbors) {
+            this.waterNeighbors = IntTable.of(waterNeighbors);
+            return this;
+        }
+
+        public Builder setWaterNeighbors(IntTable waterNeighbors) {
+            this.waterNeighbors = waterNeighbors;
+            return this;
+        }
+
+        public Builder setWaterWaterNeighbors(int[][] waterWaterNeighbors) {
+            this.waterWaterNeighbors = IntTable.of(waterWaterNeighbors);
+            return this;
+        }
+
+        public Builder setWaterWaterNeighbors(IntTable waterWaterNeighbors) {
+            this.waterWaterNeighbors = waterWaterNeighbors;
+            return this;
+        }
+
+        public Builder setLandIntersections(int[][] landIntersections) {
+            this.landIntersections = landIntersections;
+            return this;
+        }
+
+        public Builder setLandIntersectionIndexes(int[][] landIntersectionIndexes) {
+            this.landIntersectionIndexes = IntTable.of(landIntersectionIndexes);
+            return this;
+        }
+
+        public Builder setLandIntersectionIndexes(IntTable landIntersectionIndexes) {
+            this.landIntersectionIndexes = landIntersectionIndexes;
+            return this;
+        }
+
+        public Builder setPlacementIndexes(int[][] placementIndexes) {
+            this.placementIndexes = placementIndexes;
+            return this;
+        }
+
+        public Builder setAvailableResources(Resource[] availableResources) {
+            this.availableResources = availableResources;
+            return this;
+        }
+
+        public Builder setAvailableProbabilities(int[] availableProbabilities) {
+            this.availableProbabilities = availableProbabilities;
+            return this;
+        }
+
+        public Builder setAvailableOrderedProbabilities(int[] availableOrderedProbabilities) {
+            this.availableOrderedProbabilities = availableOrderedProbabilities;
+            return this;
+        }
+
+        public Builder setAvailableHarbors(Resource[] availableHarbors) {
+            this.availableHarbors = availableHarbors;
+            return this;
+        }
+
+        public Builder setOrderedHarbors(int[] orderedHarbors) {
+            this.orderedHarbors = orderedHarbors;
+            return this;
+        }
+
+        public Builder setUnknownHexes(int[] unknownHexes) {
+            this.unknownHexes = unknownHexes;
+            return this;
+        }
+
+        public Builder setUnknownGrid(Point[] unknownGrid) {
+            this.unknownHexes = Hex.fromPoints(unknownGrid);
+            return this;
+        }
+
+        public Builder setAvailableUnknownResources(Resource[] availableUnknownResources) {
+            this.availableUnknownResources = availableUnknownResources;
+            return this;
+        }
+
+        public Builder setAvailableUnknownProbabilities(int[] availableUnknownProbabilities) {
+            this.availableUnknownProbabilities = availableUnknownProbabilities;
+            return this;
+        }
+
+        public Builder setPlacementBlacklists(byte[] placementBlacklists) {
+            this.placementBlacklists = placementBlacklists;
+            return this;
+        }
+
+        public Builder setLandWater(int landWater) {
+            this.landWater = landWater;
+            return this;
+        }
+
+        public Builder setLandWaterSeed(long landWaterSeed) {
+            this.landWaterSeed = landWaterSeed;
+            return this;
+        }
+
+        public Builder setFromTheftOrder(boolean fromTheftOrder) {
+            this.fromTheftOrder = fromTheftOrder;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary form of a compiled {@link CatanMap}, as an alternative to
+ * {@link CatanMap#toClassString}. Everything is big-endian:
+ *
+ * <pre>
+ * int    MAGIC, VERSION
+ * string name, title                 (byte present, then modified UTF-8)
+ * int    lowResourceNumber, highResourceNumber
+ * ints   landHexes, waterHexes, unknownHexes, landGridProbabilities
+ * bytes  landGridResources           (Resource ordinals, -1 for null)
+ * strs   landGridWhitelists
+ * map    landResourceWhitelists      (int count, then string key + bytes each)
+ * map    landProbabilityWhitelists   (int count, then string key + ints each)
+ * ints   landGridOrder, availableOrderedProbabilities, orderedHarbors (may be null)
+ * table  harborLines, landNeighbors, waterNeighbors, waterWaterNeighbors,
+ *        landIntersections, landIntersectionIndexes, placementIndexes
+ * bytes  availableResources, availableHarbors, availableUnknownResources
+ * ints   availableProbabilities, availableUnknownProbabilities
+ * bytes  placementBlacklists         (direction mask per land piece)
+ * int    landWater
+ * long   landWaterSeed               (as two ints, high then low)
+ * </pre>
+ *
+ * "ints" is an int length (-1 for null) followed by that many ints. A "table" is an int[][]:
+ * int rows, int count of null rows, the null row indexes, rows + 1 offsets and then all of the
+ * rows' values back to back. Every int is 4-byte aligned (relative to the start of the map) so
+ * that a memory-mapped copy can be read in place as an IntBuffer.
+ */
+public final class CatanMapBinary {
+    public static final int MAGIC = 0x42534D50; // "BSMP"
+    public static final int VERSION = 3;
+
+    /** File extension for compiled maps. */
+    public static final String EXTENSION = ".bsmap";
+
+    /** The int[][] tables, in the order they're written. */
+    public enum Table {
+        HARBOR_LINES,
+        LAND_NEIGHBORS,
+        WATER_NEIGHBORS,
+        WATER_WATER_NEIGHBORS,
+        LAND_INTERSECTIONS,
+        LAND_INTERSECTION_INDEXES,
+        PLACEMENT_INDEXES
+    }
+
+    // Prevent instantiation
+    private CatanMapBinary() {}
+
+    /** Throws IllegalStateException for maps made from a theft order, like CatanMap.writeClass. */
+    public static void write(CatanMap map, OutputStream os) throws IOException {
+        writeWithTableOffsets(map, os);
+    }
+
+    /**
+     * Same as {@link #write}, but also returns where each {@link Table} starts (in bytes from the
+     * start of the map), indexed by ordinal.
+     */
+    static int[] writeWithTableOffsets(CatanMap map, OutputStream os) throws IOException {
+        if (map.fromTheftOrder) {
+            throw new IllegalStateException(map.name + " was made from a theft order, it has no seed to write");
+        }
+        Writer out = new Writer(new DataOutputStream(new BufferedOutputStream(os)));
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeString(map.name);
+        out.writeString(map.title);
+        out.writeInt(map.lowResourceNumber);
+        out.writeInt(map.highResourceNumber);
+        out.writeInts(map.landHexes);
+        out.writeInts(map.waterHexes);
+        out.writeInts(map.unknownHexes);
+        out.writeInts(map.landGridProbabilities);
+        out.writeResources(map.landGridResources);
+        out.writeStrings(map.landGridWhitelists);
+
+        out.writeInt(map.landResourceWhitelists.size());
+        for (Map.Entry<String, List<Resource>> entry : map.landResourceWhitelists.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeResources(entry.getValue().toArray(new Resource[entry.getValue().size()]));
+        }
+        out.writeInt(map.landProbabilityWhitelists.size());
+        for (Map.Entry<String, List<Integer>> entry : map.landProbabilityWhitelists.entrySet()) {
+            out.writeString(entry.getKey());
+            int[] probs = new int[entry.getValue().size()];
+            for (int i = 0; i < probs.length; i++) {
+                probs[i] = entry.getValue().get(i);
+            }
+            out.writeInts(probs);
+        }
+
+        out.writeInts(map.landGridOrder);
+        out.writeInts(map.availableOrderedProbabilities);
+        out.writeInts(map.orderedHarbors);
+        out.writeTable(Table.HARBOR_LINES, map.harborLines);
+        out.writeTable(Table.LAND_NEIGHBORS, map.landNeighbors);
+        out.writeTable(Table.WATER_NEIGHBORS, map.waterNeighbors);
+        out.writeTable(Table.WATER_WATER_NEIGHBORS, map.waterWaterNeighbors);
+        out.writeTable(Table.LAND_INTERSECTIONS, map.landIntersections);
+        out.writeTable(Table.LAND_INTERSECTION_INDEXES, map.landIntersectionIndexes);
+        out.writeTable(Table.PLACEMENT_INDEXES, map.placementIndexes);
+        out.writeResources(map.availableResources);
+        out.writeResources(map.availableHarbors);
+        out.writeResources(map.availableUnknownResources);
+        out.writeInts(map.availableProbabilities);
+        out.writeInts(map.availableUnknownProbabilities);
+        out.writeBytes(map.placementBlacklists);
+
+        out.writeInt(map.landWater);
+        out.writeInt((int) (map.landWaterSeed >>> 32));
+        out.writeInt((int) map.landWaterSeed);
+
+        out.flush();
+        return out.tableOffsets;
+    }
+
+    /** Reads a map written by {@link #write} in a single pass. */
+    public static CatanMap read(InputStream is) throws IOException {
+        Reader in = new Reader(new DataInputStream(new BufferedInputStream(is)));
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a compiled map");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compiled map version " + version);
+        }
+
+        CatanMap.Builder builder = CatanMap.newBuilder()
+                .setName(in.readString())
+                .setTitle(in.readString())
+                .setLowResourceNumber(in.readInt())
+                .setHighResourceNumber(in.readInt())
+                .setLandHexes(in.readInts())
+                .setWaterHexes(in.readInts())
+                .setUnknownHexes(in.readInts())
+                .setLandGridProbabilities(in.readInts())
+                .setLandGridResources(in.readResources())
+                .setLandGridWhitelists(in.readStrings());
+
+        int resourceWhitelistCount = in.readInt();
+        Map<String, List<Resource>> landResourceWhitelists = new HashMap<String, List<Resource>>(resourceWhitelistCount);
+        for (int i = 0; i < resourceWhitelistCount; i++) {
+            String key = in.readString();
+            Resource[] resources = in.readResources();
+            List<Resource> list = new ArrayList<Resource>(resources.length);
+            for (Resource resource : resources) {
+                list.add(resource);
+            }
+            landResourceWhitelists.put(key, list);
+        }
+        int probabilityWhitelistCount = in.readInt();
+        Map<String, List<Integer>> landProbabilityWhitelists = new HashMap<String, List<Integer>>(probabilityWhitelistCount);
+        for (int i = 0; i < probabilityWhitelistCount; i++) {
+            String key = in.readString();
+            int[] probs = in.readInts();
+            List<Integer> list = new ArrayList<Integer>(probs.length);
+            for (int prob : probs) {
+                list.add(prob);
+            }
+            landProbabilityWhitelists.put(key, list);
+        }
+        builder.setLandResourceWhitelists(landResourceWhitelists)
+                .setLandProbabilityWhitelists(landProbabilityWhitelists);
+
+        builder.setLandGridOrder(in.readInts())
+                .setAvailableOrderedProbabilities(in.readInts())
+                .setOrderedHarbors(in.readInts())
+                .setHarborLines(in.readIntTable())
+                .setLandNeighbors(in.readIntTable())
+                .setWaterNeighbors(in.readIntTable())
+                .setWaterWaterNeighbors(in.readIntTable())
+                .setLandIntersections(in.readTable())
+                .setLandIntersectionIndexes(in.readIntTable())
+                .setPlacementIndexes(in.readTable())
+                .setAvailableResources(in.readResources())
+                .setAvailableHarbors(in.readResources())
+                .setAvailableUnknownResources(in.readResources())
+                .setAvailableProbabilities(in.readInts())
+                .setAvailableUnknownProbabilities(in.readInts())
+                .setPlacementBlacklists(in.readBytes());
+
+        builder.setLandWater(in.readInt())
+                .setLandWaterSeed(((long) in.readInt() << 32) | (in.readInt() & 0xFFFFFFFFL));
+
+        return builder.build();
+    }
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final int[] tableOffsets = new int[Table.values().length];
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeInt(int value) throws IOException {
+            align();
+            out.writeInt(value);
+        }
+
+        void writeString(String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        void writeStrings(String[] values) throws IOException {
+            writeInt(values == null ? -1 : values.length);
+            if (values != null) {
+                for (String value : values) {
+                    writeString(value);
+                }
+            }
+        }
+
+        void writeInts(int[] values) throws IOException {
+            writeInt(values == null ? -1 : values.length);
+            if (values != null) {
+                for (int value : values) {
+                    out.writeInt(value);
+                }
+            }
+        }
+
+        void writeResources(Resource[] values) throws IOException {
+            writeInt(values == null ? -1 : values.length);
+            if (values != null) {
+                for (Resource value : values) {
+                    out.writeByte(value == null ? -1 : value.ordinal());
+                }
+            }
+        }
+
+        void writeBytes(byte[] values) throws IOException {
+            writeInt(values == null ? -1 : values.length);
+            if (values != null) {
+                out.write(values);
+            }
+        }
+
+        void writeTable(Table table, int[][] rows) throws IOException {
+            writeTable(table, IntTable.of(rows));
+        }
+
+        void writeTable(Table table, IntTable rows) throws IOException {
+            align();
+            tableOffsets[table.ordinal()] = out.size();
+            writeInt(rows == null ? -1 : rows.rows());
+            if (rows == null) {
+                return;
+            }
+
+            int nulls = 0;
+            for (int i = 0; i < rows.rows(); i++) {
+                if (rows.isNull(i)) {
+                    nulls++;
+                }
+            }
+            out.writeInt(nulls);
+            for (int i = 0; i < rows.rows(); i++) {
+                if (rows.isNull(i)) {
+                    out.writeInt(i);
+                }
+            }
+
+            // An IntTable is laid out the same way, so the offsets and values go out as they are
+            out.writeInt(0);
+            for (int i = 0; i < rows.rows(); i++) {
+                out.writeInt(rows.end(i));
+            }
+            for (int i = 0; i < rows.size(); i++) {
+                out.writeInt(rows.value(i));
+            }
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        private void align() throws IOException {
+            while (out.size() % 4 != 0) {
+                out.writeByte(0);
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+        private long position;
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        int readInt() throws IOException {
+            align();
+            return readRawInt();
+        }
+
+        String readString() throws IOException {
+            position++;
+            if (!in.readBoolean()) {
+                return null;
+            }
+            String value = in.readUTF();
+            position += 2 + utfLength(value);
+            return value;
+        }
+
+        String[] readStrings() throws IOException {
+            int length = readInt();
+            if (length == -1) {
+                return null;
+            }
+            String[] values = new String[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = readString();
+            }
+            return values;
+        }
+
+        int[] readInts() throws IOException {
+            int length = readInt();
+            if (length == -1) {
+                return null;
+            }
+            int[] values = new int[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = readRawInt();
+            }
+            return values;
+        }
+
+        Resource[] readResources() throws IOException {
+            int length = readInt();
+            if (length == -1) {
+                return null;
+            }
+            Resource[] all = Resource.values();
+            Resource[] values = new Resource[length];
+            for (int i = 0; i < length; i++) {
+                byte ordinal = in.readByte();
+                values[i] = ordinal == -1 ? null : all[ordinal];
+            }
+            position += length;
+            return values;
+        }
+
+        byte[] readBytes() throws IOException {
+            int length = readInt();
+            if (length == -1) {
+                return null;
+            }
+            byte[] values = new byte[length];
+            in.readFully(values);
+            position += length;
+            return values;
+        }
+
+        int[][] readTable() throws IOException {
+            IntTable table = readIntTable();
+            return table == null ? null : table.toArrays();
+        }
+
+        /** Reads a table as it's laid out, without splitting it up into rows. */
+        IntTable readIntTable() throws IOException {
+            int rows = readInt();
+            if (rows == -1) {
+                return null;
+            }
+
+            int nulls = readRawInt();
+            boolean[] nullRows = nulls == 0 ? null : new boolean[rows];
+            for (int i = 0; i < nulls; i++) {
+                nullRows[readRawInt()] = true;
+            }
+
+            int[] offsets = new int[rows + 1];
+            for (int i = 0; i <= rows; i++) {
+                offsets[i] = readRawInt();
+            }
+
+            int[] values = new int[offsets[rows]];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readRawInt();
+            }
+            return new IntTable(offsets, values, nullRows);
+        }
+
+        private int readRawInt() throws IOException {
+            position += 4;
+            return in.readInt();
+        }
+
+        private void align() throws IOException {
+            while (position % 4 != 0) {
+                in.readByte();
+                position++;
+            }
+        }
+
+        /** The number of bytes writeUTF used for this string. */
+        private static int utfLength(String value) {
+            int length = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x0001 && c <= 0x007F) {
+                    length++;
+                } else if (c > 0x07FF) {
+                    length += 3;
+                } else {
+                    length += 2;
+                }
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Many {@link CatanMapBinary compiled maps} in one file, with an index up front:
+ *
+ * <pre>
+ * int MAGIC, VERSION, count
+ * count x { short name length, UTF-8 name, int offset, int length, int[] table offsets }
+ * the maps themselves, each starting on an 8 byte boundary
+ * </pre>
+ *
+ * {@link #open} memory-maps the file and only reads the index. Each map is decoded the first
+ * time it's asked for, and its tables can be read in place through {@link #table} without
+ * decoding the map at all.
+ */
+public final class CatanMapBundle {
+    public static final int MAGIC = 0x42534D42; // "BSMB"
+    public static final int VERSION = 2;
+
+    /** File name for the bundle of every map. */
+    public static final String FILE_NAME = "maps.bsbundle";
+
+    private static final int TABLE_COUNT = CatanMapBinary.Table.values().length;
+
+    private final ByteBuffer buffer;
+    private final Map<String, Entry> entries;
+    private final Map<String, CatanMap> decoded = new HashMap<String, CatanMap>();
+
+    private CatanMapBundle(ByteBuffer buffer, Map<String, Entry> entries) {
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    public static void write(Map<String, CatanMap> maps, OutputStream os) throws IOException {
+        List<String> names = new ArrayList<String>(maps.keySet());
+        List<byte[]> blobs = new ArrayList<byte[]>(names.size());
+        List<int[]> tableOffsets = new ArrayList<int[]>(names.size());
+        int headerLength = 12;
+        for (String name : names) {
+            ByteArrayOutputStream blob = new ByteArrayOutputStream();
+            tableOffsets.add(CatanMapBinary.writeWithTableOffsets(maps.get(name), blob));
+            blobs.add(blob.toByteArray());
+            headerLength += 2 + name.getBytes("UTF-8").length + 8 + 4 * TABLE_COUNT;
+        }
+
+        int[] offsets = new int[names.size()];
+        int offset = align(headerLength);
+        for (int i = 0; i < names.size(); i++) {
+            offsets[i] = offset;
+            offset = align(offset + blobs.get(i).length);
+        }
+
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            byte[] name = names.get(i).getBytes("UTF-8");
+            out.writeShort(name.length);
+            out.write(name);
+            out.writeInt(offsets[i]);
+            out.writeInt(blobs.get(i).length);
+            for (int tableOffset : tableOffsets.get(i)) {
+                out.writeInt(tableOffset);
+            }
+        }
+        for (int i = 0; i < names.size(); i++) {
+            while (out.size() < offsets[i]) {
+                out.writeByte(0);
+            }
+            out.write(blobs.get(i));
+        }
+        out.flush();
+    }
+
+    /** Memory-maps a bundle. Only the index is read now. */
+    public static CatanMapBundle open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        ByteBuffer buffer;
+        try {
+            FileChannel channel = raf.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            // The mapping stays valid after the channel is closed
+            raf.close();
+        }
+        return open(buffer);
+    }
+
+    /** Opens a bundle that's already in memory (or mapped). */
+    public static CatanMapBundle open(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        if (in.remaining() < 12 || in.getInt() != MAGIC) {
+            throw new IOException("Not a map bundle");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported map bundle version " + version);
+        }
+
+        int count = in.getInt();
+        Map<String, Entry> entries = new LinkedHashMap<String, Entry>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[in.getShort() & 0xFFFF];
+            in.get(name);
+            int offset = in.getInt();
+            int length = in.getInt();
+            int[] tableOffsets = new int[TABLE_COUNT];
+            for (int j = 0; j < TABLE_COUNT; j++) {
+                tableOffsets[j] = in.getInt();
+            }
+            if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+                throw new IOException("Corrupt map bundle index");
+            }
+            entries.put(new String(name, "UTF-8"), new Entry(offset, length, tableOffsets));
+        }
+        return new CatanMapBundle(buffer, entries);
+    }
+
+    public Set<String> names() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /** Returns the named map, decoding it the first time it's asked for. Null if there's no such map. */
+    public synchronized CatanMap get(String name) throws IOException {
+        CatanMap map = decoded.get(name);
+        if (map == null) {
+            Entry entry = entries.get(name);
+            if (entry == null) {
+                return null;
+            }
+            map = CatanMapBinary.read(new ByteBufferInputStream(slice(entry.offset, entry.length)));
+            decoded.put(name, map);
+        }
+        return map;
+    }
+
+    /**
+     * Returns a view of one of a map's tables straight out of the bundle, without decoding the
+     * map. Null if there's no such map or the table itself is null.
+     */
+    public Table table(String name, CatanMapBinary.Table table) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+
+        ByteBuffer bytes = slice(entry.offset + entry.tableOffsets[table.ordinal()],
+                entry.length - entry.tableOffsets[table.ordinal()]);
+        IntBuffer ints = bytes.asIntBuffer();
+        int rows = ints.get(0);
+        if (rows == -1) {
+            return null;
+        }
+        int nulls = ints.get(1);
+        int offsetsStart = 2 + nulls;
+        int valuesStart = offsetsStart + rows + 1;
+        int valueCount = ints.get(valuesStart - 1);
+        return new Table(rows,
+                subBuffer(ints, 2, nulls),
+                subBuffer(ints, offsetsStart, rows + 1),
+                subBuffer(ints, valuesStart, valueCount));
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return slice.slice();
+    }
+
+    private static IntBuffer subBuffer(IntBuffer ints, int start, int length) {
+        IntBuffer sub = ints.duplicate();
+        sub.position(start);
+        sub.limit(start + length);
+        return sub.slice();
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    /**
+     * A read-only int[][] backed directly by the bundle. Null rows read as empty, check
+     * {@link #isNull} to tell them apart.
+     */
+    public static final class Table {
+        private final int rows;
+        private final IntBuffer nullRows;
+        private final IntBuffer offsets;
+        private final IntBuffer values;
+
+        private Table(int rows, IntBuffer nullRows, IntBuffer offsets, IntBuffer values) {
+            this.rows = rows;
+            this.nullRows = nullRows;
+            this.offsets = offsets;
+            this.values = values;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public boolean isNull(int row) {
+            // Null rows are written in increasing order
+            int low = 0;
+            int high = nullRows.limit() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = nullRows.get(mid);
+                if (value < row) {
+                    low = mid + 1;
+                } else if (value > row) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int rowLength(int row) {
+            return offsets.get(row + 1) - offsets.get(row);
+        }
+
+        public int get(int row, int index) {
+            return values.get(offsets.get(row) + index);
+        }
+
+        /** All the rows' values back to back; row i is [offsets(i), offsets(i + 1)). */
+        public IntBuffer values() {
+            return values.duplicate();
+        }
+
+        public IntBuffer offsets() {
+            return offsets.duplicate();
+        }
+    }
+
+    private static final class Entry {
+        final int offset;
+        final int length;
+        final int[] tableOffsets;
+
+        Entry(int offset, int length, int[] tableOffsets) {
+            this.offset = offset;
+            this.length = length;
+            this.tableOffsets = tableOffsets;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+    }
+}
@@ -0,0 +1,950 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.json.JSONException;
+
+/**
+ * Turns map json into a {@link CatanMap}. Holds no shared mutable state, so it's safe to generate
+ * several maps on different threads at once.
+ */
+public final class CatanMapGenerator {
+    /** Bump whenever the generated output changes, so cached outputs get regenerated. */
+    public static final int VERSION = 3;
+
+    private static final String TAG = "CatanMapGenerator";
+
+    // One per thread so concurrent generation doesn't contend on it
+    private static final ThreadLocal<Random> RAND = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private static volatile Logger sLogger = Logger.SYSTEM;
+
+    private static final String NAME = "name";
+    private static final String TITLE = "title";
+    private static final String LAND = "land";
+    private static final String ORDERED_LAND = "ordered_land";
+    private static final String WATER = "water";
+    private static final String LAND_WATER = "land_water";
+    private static final String RESOURCE = "resource";
+    private static final String RESOURCES = "resources";
+    private static final String PROBABILITY = "probability";
+    private static final String PROBABILITIES = "probabilities";
+    private static final String ORDERED_PROBABILITIES = "ordered_probabilities";
+    private static final String HARBORS = "harbors";
+    private static final String HARBOR = "harbor";
+    private static final String ORDERED_HARBORS = "ordered_harbors";
+    private static final String X = "x";
+    private static final String Y = "y";
+    private static final String WHITELIST = "whitelist";
+    private static final String LAND_WHITELIST = "land_whitelist";
+    private static final String KEY = "key";
+    private static final String TYPE = "type";
+    private static final String VALUE = "value";
+    private static final String UNKNOWN_LANDWATER = "unknown_landwater";
+    private static final String UNKNOWN_RESOURCES = "unknown_resources";
+    private static final String UNKNOWN_PROBABILITIES = "unknown_probabilities";
+    private static final String PLACEMENT_BLACKLIST = "placement_blacklist";
+
+    // Prevent instantiation
+    private CatanMapGenerator() {}
+
+    public static void setLogger(Logger logger) {
+        sLogger = logger;
+    }
+
+    public static CatanMap generateFromJson(InputStream is) {
+        return generateFromJson(is, RAND.get().nextLong());
+    }
+
+    /**
+     * Same as generateFromJson, recording how long each phase took and how much it allocated in
+     * profile. The profile's clock is started here.
+     */
+    public static CatanMap generateFromJson(InputStream is, GenerationProfile profile) {
+        return generateFromJson(is, RAND.get().nextLong(), null, profile);
+    }
+
+    /**
+     * Same as generateFromJson, except land_water tiles are picked with landWaterSeed (see
+     * CatanMap.landWaterSeed), so the same seed always makes the same map.
+     */
+    public static CatanMap generateFromJson(InputStream is, long landWaterSeed) {
+        return generateFromJson(is, landWaterSeed, null, null);
+    }
+
+    /**
+     * Makes a map saved before land water seeds again, from the theft order it recorded: for each
+     * new water tile, either the index of the land it was taken from (counting only the land that
+     * was left at the time) or a negative number for the next existing water. A null theftOrder
+     * picks the land_water tiles at random.
+     */
+    public static CatanMap generateFromJson(InputStream is, ArrayList<Integer> theftOrder) {
+        if (theftOrder == null) {
+            return generateFromJson(is);
+        }
+        int[] order = new int[theftOrder.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = theftOrder.get(i);
+        }
+        return generateFromJson(is, 0, order, null);
+    }
+
+    private static CatanMap generateFromJson(InputStream is, long landWaterSeed, int[] theftOrder,
+            GenerationProfile profile) {
+        CatanMap map;
+        try {
+            map = generateFromJsonInternal(is, landWaterSeed, theftOrder, profile);
+        } catch (IOException e) {
+            sLogger.e(TAG, "IOException parsing JsonMap", e);
+            return null;
+        } catch (JSONException e) {
+            sLogger.e(TAG, "JSONException parsing JsonMap", e);
+            return null;
+        }
+
+        List<String> violations = CatanMapValidator.validate(map);
+        if (!violations.isEmpty()) {
+            StringBuilder message = new StringBuilder(map.name + " is broken:");
+            for (String violation : violations) {
+                message.append("\n  ").append(violation);
+            }
+            throw new IllegalArgumentException(message.toString());
+        }
+        lap(profile, GenerationProfile.Phase.VALIDATE);
+
+        return map;
+    }
+
+    private static CatanMap generateFromJsonInternal(InputStream is, long landWaterSeed, int[] theftOrder,
+            GenerationProfile profile) throws IOException, JSONException {
+        if (profile != null) {
+            profile.start();
+            is = profile.timeReads(is);
+        }
+
+        CatanMap.Builder mapBuilder = CatanMap.newBuilder();
+        boolean[] landWithHarbors = setFieldsFromJson(mapBuilder, new InputStreamReader(is, "UTF-8"), landWaterSeed, theftOrder, profile);
+
+        // Stuff everyone will have to do (post-JSON)
+        setHarborLinesAndWaterNeighborsHelper(mapBuilder, landWithHarbors);
+        lap(profile, GenerationProfile.Phase.HARBOR_LINES);
+        setLandNeighborsAndIntersectionsAndPlacementIndexesHelper(mapBuilder);
+        lap(profile, GenerationProfile.Phase.NEIGHBORS);
+        setLandIntersectionIndexesAfterIntersectionsHelper(mapBuilder);
+        lap(profile, GenerationProfile.Phase.INTERSECTION_INDEXES);
+
+        CatanMap map = mapBuilder.build();
+        lap(profile, GenerationProfile.Phase.BUILD);
+        return map;
+    }
+
+    private static void lap(GenerationProfile profile, GenerationProfile.Phase phase) {
+        if (profile != null) {
+            profile.lap(phase);
+        }
+    }
+
+    /**
+     * Streams the JSON straight into the builder, so the file is never held in memory as a whole
+     * (as a string or a DOM). Returns which land can have harbors.
+     *
+     * Package-private (as are the post-JSON helpers) so the benchmarks can time each phase.
+     */
+    static boolean[] setFieldsFromJson(CatanMap.Builder mapBuilder, Reader in, long landWaterSeed, int[] theftOrder,
+            GenerationProfile profile) throws IOException, JSONException {
+        // Optional fields
+        mapBuilder.setLandResourceWhitelists(new HashMap<String, List<Resource>>())
+                .setLandProbabilityWhitelists(new HashMap<String, List<Integer>>())
+                .setUnknownHexes(new int[] {})
+                .setAvailableUnknownResources(new Resource[] {})
+                .setAvailableUnknownProbabilities(new int[] {});
+
+        boolean[] landWithHarbors = null;
+        boolean hasLandWater = false;
+        int landWater = 0;
+
+        JsonReader reader = new JsonReader(in);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (NAME.equals(key)) {
+                mapBuilder.setName(reader.nextString());
+            } else if (TITLE.equals(key)) {
+                mapBuilder.setTitle(reader.nextString());
+            } else if (LAND.equals(key)) {
+                lap(profile, GenerationProfile.Phase.PARSE);
+                landWithHarbors = setLandGridAndLandWithHarborsGridFromJson(mapBuilder, reader);
+                lap(profile, GenerationProfile.Phase.GRIDS);
+            } else if (LAND_WHITELIST.equals(key)) {
+                setLandWhitelists(mapBuilder, reader);
+            } else if (UNKNOWN_LANDWATER.equals(key)) {
+                lap(profile, GenerationProfile.Phase.PARSE);
+                mapBuilder.setUnknownHexes(readHexArray(reader));
+                lap(profile, GenerationProfile.Phase.GRIDS);
+            } else if (WATER.equals(key)) {
+                lap(profile, GenerationProfile.Phase.PARSE);
+                mapBuilder.setWaterHexes(readHexArray(reader));
+                lap(profile, GenerationProfile.Phase.GRIDS);
+            } else if (LAND_WATER.equals(key)) {
+                hasLandWater = true;
+                landWater = reader.nextInt();
+            } else if (RESOURCES.equals(key)) {
+                setResourcesFromJson(mapBuilder, reader);
+            } else if (UNKNOWN_RESOURCES.equals(key)) {
+                mapBuilder.setAvailableUnknownResources(readResourceArray(reader));
+            } else if (PROBABILITIES.equals(key)) {
+                mapBuilder.setAvailableProbabilities(readIntArray(reader));
+            } else if (HARBORS.equals(key)) {
+                mapBuilder.setAvailableHarbors(readResourceArray(reader));
+            } else if (UNKNOWN_PROBABILITIES.equals(key)) {
+                mapBuilder.setAvailableUnknownProbabilities(readIntArray(reader));
+            } else if (ORDERED_LAND.equals(key)) {
+                // "ordered" map SPECIFIC
+                mapBuilder.setLandGridOrder(readIntArray(reader));
+            } else if (ORDERED_PROBABILITIES.equals(key)) {
+                mapBuilder.setAvailableOrderedProbabilities(readIntArray(reader));
+            } else if (ORDERED_HARBORS.equals(key)) {
+                mapBuilder.setOrderedHarbors(readIntArray(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        checkHas(mapBuilder.getName(), NAME);
+        checkHas(mapBuilder.getTitle(), TITLE);
+        checkHas(landWithHarbors, LAND);
+        checkHas(mapBuilder.getWaterHexes(), WATER);
+        checkHas(mapBuilder.getAvailableResources(), RESOURCES);
+        checkHas(mapBuilder.getAvailableProbabilities(), PROBABILITIES);
+        checkHas(mapBuilder.getAvailableHarbors(), HARBORS);
+
+        lap(profile, GenerationProfile.Phase.PARSE);
+
+        // Needs both the land and the water, which can come in either order
+        if (hasLandWater) {
+            landWithHarbors = convertLandToWater(mapBuilder, landWater, landWaterSeed, theftOrder, landWithHarbors);
+            lap(profile, GenerationProfile.Phase.LAND_WATER);
+        }
+
+        return landWithHarbors;
+    }
+
+    // IMPORTANT: Must be run after the intersections have been set up
+    // TODO(flynn): Make intersections a function argument
+    static void setLandIntersectionIndexesAfterIntersectionsHelper(CatanMap.Builder mapBuilder) {
+        int lands = mapBuilder.getLandHexes().length;
+        int[][] intersections = mapBuilder.getLandIntersections();
+
+        // Count each land's intersections to lay out the rows, then fill them in intersection order
+        int[] offsets = new int[lands + 1];
+        for (int[] inters : intersections) {
+            for (int inter : inters) {
+                offsets[inter + 1]++;
+            }
+        }
+        for (int i = 0; i < lands; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] next = Arrays.copyOf(offsets, lands);
+        int[] indexes = new int[offsets[lands]];
+        for (int i = 0; i < intersections.length; i++) {
+            for (int inter : intersections[i]) {
+                indexes[next[inter]++] = i;
+            }
+        }
+        mapBuilder.setLandIntersectionIndexes(new IntTable(offsets, indexes, null));
+    }
+
+    static void setLandNeighborsAndIntersectionsAndPlacementIndexesHelper(CatanMap.Builder mapBuilder) {
+        List<int[]> uberNeighborList = new ArrayList<int[]>();
+        int[] landHexes = mapBuilder.getLandHexes();
+        int[] waterHexes = mapBuilder.getWaterHexes();
+        IntTable.Builder lands = new IntTable.Builder(landHexes.length);
+        List<int[]> uberIndexes = new ArrayList<int[]>();
+
+        byte[] blacklists = mapBuilder.getPlacementBlacklists();
+
+        HexIndex landIndex = new HexIndex(landHexes);
+        int[] neighbors = new int[6];
+        for (int i = 0; i < landHexes.length; i++) {
+            int land = landHexes[i];
+            int count = 0;
+            for (int j = 0; j < 6; j++) {
+                int neighbor = landIndex.indexOf(Hex.neighbor(land, j));
+                if (neighbor != -1) {
+                    neighbors[count++] = neighbor;
+                }
+            }
+            // Neighbors are listed in land grid order, not direction order
+            Arrays.sort(neighbors, 0, count);
+            for (int j = 0; j < count; j++) {
+                lands.add(neighbors[j]);
+            }
+            lands.endRow();
+
+            int neighbor2 = landIndex.indexOf(Hex.neighbor(land, 2));
+            int neighbor3 = landIndex.indexOf(Hex.neighbor(land, 3));
+            int neighbor4 = landIndex.indexOf(Hex.neighbor(land, 4));
+            if (neighbor3 != -1 && neighbor2 != -1) {
+                int[] triplet = new int[3];
+                triplet[0] = i;
+                triplet[1] = neighbor2;
+                triplet[2] = neighbor3;
+                uberNeighborList.add(triplet);
+
+                int[] duple = new int[2];
+                duple[0] = i;
+                duple[1] = 3;
+
+                if (isBlacklisted(blacklists, i, 3)) {
+                    uberIndexes.add(new int[0]);
+                } else {
+                    uberIndexes.add(duple);
+                }
+            }
+
+            if (neighbor4 != -1 && neighbor3 != -1) {
+                int[] triplet = new int[3];
+                triplet[0] = i;
+                triplet[1] = neighbor4;
+                triplet[2] = neighbor3;
+                uberNeighborList.add(triplet);
+
+                int[] duple = new int[2];
+                duple[0] = i;
+                duple[1] = 4;
+
+                if (isBlacklisted(blacklists, i, 4)) {
+                    uberIndexes.add(new int[0]);
+                } else {
+                    uberIndexes.add(duple);
+                }
+            }
+        }
+
+        mapBuilder.setLandNeighbors(lands.build());
+
+        for (int i = 0; i < waterHexes.length; i++) {
+            int water = waterHexes[i];
+            int waterX = Hex.x(water);
+            int waterY = Hex.y(water);
+
+            int count = 0;
+            for (int j = 0; j < 6; j++) {
+                int neighbor = landIndex.indexOf(Hex.neighbor(water, j));
+                if (neighbor != -1) {
+                    neighbors[count++] = neighbor;
+                }
+            }
+            int[] tuple = Arrays.copyOf(neighbors, count);
+
+            List<int[]> tuples = new ArrayList<int[]>();
+            if (tuple.length > 2) {
+                // Split 3+ arrays into small two-somes
+                for (int j = 0; j < tuple.length; j++) {
+                    int k = (j + 1) % tuple.length;
+                    int[] newTuple = new int[2];
+                    newTuple[0] = tuple[j];
+                    newTuple[1] = tuple[k];
+                    tuples.add(newTuple);
+                }
+            } else if (tuple.length == 2) {
+                // Keep two-somes as is
+                tuples.add(tuple);
+            } // Ignore all others
+
+            for (int[] realTuple : tuples) {
+                Arrays.sort(realTuple);
+
+                int land1 = landHexes[realTuple[0]];
+                int land2 = landHexes[realTuple[1]];
+
+                // Only store consecutive coastline
+                if (!Hex.isNeighbor(land1, land2)) {
+                    continue;
+                }
+                int land1X = Hex.x(land1);
+                int land1Y = Hex.y(land1);
+                int land2X = Hex.x(land2);
+                int land2Y = Hex.y(land2);
+
+                // realTuple is always a fresh array, so no need to check for it already being here
+                uberNeighborList.add(realTuple);
+
+                boolean added = false;
+
+                //System.out.println(getName() + " 0000 " + String.format("(%d,%d)", tuple[0], tuple[1]));
+                int[] placement = new int[2];
+                if (land1Y == land2Y) {
+                    if (land1X > land2X) {
+                        if (waterY > land1Y && waterY > land2Y) {
+                            //System.out.println(getName() + " 1111aaaa");
+                            placement[0] = realTuple[1];
+                            placement[1] = 3;
+                            added = true;
+                        } else if (waterY < land1Y && waterY < land2Y) {
+                            //System.out.println(getName() + " 2222aaaa");
+                            placement[0] = realTuple[1];
+                            placement[1] = 2;
+                            added = true;
+                        }
+                    } else if (land1X < land2X){
+                        if (waterY > land1Y && waterY > land2Y) {
+                            //System.out.println(getName() + " 1111bbbb");
+                            placement[0] = realTuple[0];
+                            placement[1] = 3;
+                            added = true;
+                        } else if (waterY < land1Y && waterY < land2Y) {
+                            //System.out.println(getName() + " 2222bbbb");
+                            placement[0] = realTuple[0];
+                            placement[1] = 2;
+                            added = true;
+                        }
+                    }
+                } else if (land1Y < land2Y) {
+                    if (waterY == land1Y) {
+                        if (waterX < land1X && waterX < land2X) {
+                            //System.out.println(getName() + " 3333");
+                            placement[0] = realTuple[0];
+                            placement[1] = 5;
+                            added = true;
+                        } else if (waterX > land1X && waterX > land1X) {
+                            //System.out.println(getName() + " 4444");
+                            placement[0] = realTuple[0];
+                            placement[1] = 3;
+                            added = true;
+                        }
+                    } else if (waterY == land2Y) {
+                        if (waterX < land1X && waterX < land2X) {
+                            //System.out.println(getName() + " 5555");
+                            placement[0] = realTuple[0];
+                            placement[1] = 4;
+                            added = true;
+                        } else if (waterX > land1X && waterX > land1X) {
+                            //System.out.println(getName() + " 6666");
+                            placement[0] = realTuple[0];
+                            placement[1] = 4;
+                            added = true;
+                        }
+                    }
+                } else if (land1Y > land2Y) {
+                    if (waterY == land1Y) {
+                        if (waterX < land1X && waterX < land2X) {
+                            //System.out.println(getName() + " 7777");
+                            placement[0] = realTuple[0];
+                            placement[1] = 2;
+                            added = true;
+                        } else if (waterX > land1X && waterX > land1X) {
+                            //System.out.println(getName() + " 8888");
+                            placement[0] = realTuple[0];
+                            placement[1] = 0;
+                            added = true;
+                        }
+                    } else if (waterY == land2Y) {
+                        if (waterX < land1X && waterX < land2X) {
+                            //System.out.println(getName() + " 9999");
+                            placement[0] = realTuple[0];
+                            placement[1] = 1;
+                            added = true;
+                        } else if (waterX > land1X && waterX > land1X) {
+                            //System.out.println(getName() + " AAAA");
+                            placement[0] = realTuple[0];
+                            placement[1] = 1;
+                            added = true;
+                        }
+                    }
+                }
+                if (!added || isBlacklisted(blacklists, placement[0], placement[1])) {
+                    uberIndexes.add(new int[0]);
+                } else {
+                    uberIndexes.add(placement);
+                }
+            }
+        }
+
+        int[][] indexes = new int[uberIndexes.size()][];
+        for (int i = 0; i < uberIndexes.size(); i++) {
+            indexes[i] = uberIndexes.get(i);
+        }
+        mapBuilder.setPlacementIndexes(indexes);
+
+        int[][] inters = new int[uberNeighborList.size()][];
+        for (int i = 0; i < uberNeighborList.size(); i++) {
+            inters[i] = uberNeighborList.get(i);
+        }
+        mapBuilder.setLandIntersections(inters);
+    }
+
+    private static byte[] toBytes(IntList list) {
+        byte[] bytes = new byte[list.size()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) list.get(i);
+        }
+        return bytes;
+    }
+
+    private static boolean isBlacklisted(byte[] blacklists, int land, int direction) {
+        return (blacklists[land] & (1 << direction)) != 0;
+    }
+
+    // super ugly, clean up
+    static void setHarborLinesAndWaterNeighborsHelper(CatanMap.Builder mapBuilder, boolean[] landWithHarbors) {
+        int[] waterHexes = mapBuilder.getWaterHexes();
+        IntTable.Builder harborLines = new IntTable.Builder(waterHexes.length);
+        IntTable.Builder neighborLines = new IntTable.Builder(waterHexes.length);
+        IntTable.Builder waterNeighborLines = new IntTable.Builder(waterHexes.length);
+
+        HexIndex landIndex = new HexIndex(mapBuilder.getLandHexes());
+        HexIndex waterIndex = new HexIndex(waterHexes);
+        for (int i = 0; i < waterHexes.length; i++) {
+            int water = waterHexes[i];
+
+            boolean[] has = new boolean[6];
+            boolean[] waterHas = new boolean[6];
+            for (int j = 0; j < 6; j++) {
+                int neighbor = Hex.neighbor(water, j);
+                int landNeighbor = landIndex.indexOf(neighbor);
+                if (landNeighbor != -1) {
+                    has[j] = landWithHarbors[landNeighbor];
+                }
+
+                if (waterIndex.contains(neighbor)) {
+                    waterHas[j] = true;
+                }
+            }
+
+            int leftMost = -1;
+            for (int j = 5; j >= 0; j--) {
+                if (!has[j] && has[(j + 5) % 6]) {
+                    leftMost = (j + 1) % 6;
+                }
+            }
+            if (leftMost == -1) {
+                neighborLines.endNullRow();
+                waterNeighborLines.endNullRow();
+                harborLines.endNullRow();
+                continue;
+            }
+
+            for (int j = 0; j < 6; j++) {
+                int k = (leftMost + j) % 6;
+                if (has[k]) {
+                    neighborLines.add(landIndex.indexOf(Hex.neighbor(water, k)));
+                } else if (waterHas[k]) {
+                    waterNeighborLines.add(waterIndex.indexOf(Hex.neighbor(water, k)));
+                }
+            }
+            neighborLines.endRow();
+            waterNeighborLines.endRow();
+
+            for (int j = 0; j < 6; j++) {
+                // A line can go to a corner if either side of it touches land
+                if (has[(leftMost + j + 5) % 6] || has[(leftMost + j) % 6]) {
+                    harborLines.add((leftMost + j) % 6);
+                }
+            }
+            harborLines.endRow();
+        }
+        mapBuilder.setWaterNeighbors(neighborLines.build())
+                .setWaterWaterNeighbors(waterNeighborLines.build())
+                .setHarborLines(harborLines.build());
+    }
+
+    /**
+     * Turns num land tiles into water, and drops their entries from every per-land table so the
+     * rest line up with the land that's left. Returns landWithHarbors, re-indexed the same way.
+     */
+    private static boolean[] convertLandToWater(CatanMap.Builder mapBuilder, int num, long seed, int[] theftOrder,
+            boolean[] landWithHarbors) throws JSONException {
+        int[] landGrid = mapBuilder.getLandHexes();
+        int[] waterGrid = mapBuilder.getWaterHexes();
+        if (num < 0 || num > landGrid.length) {
+            throw new JSONException("land_water out of range: " + num);
+        }
+
+        int[] newWaterGrid = new int[waterGrid.length + num];
+        boolean[] stolen = new boolean[landGrid.length];
+        int water = 0;
+        int counter = 0;
+
+        if (theftOrder != null) {
+            // Use it
+            LandLeft landLeft = new LandLeft(landGrid.length);
+            for (int i = 0; i < theftOrder.length && counter < newWaterGrid.length; i++) {
+                if (theftOrder[i] >= 0) {
+                    int chosen = landLeft.remove(theftOrder[i]);
+                    stolen[chosen] = true;
+                    newWaterGrid[counter++] = landGrid[chosen];
+                } else if (water < waterGrid.length) {
+                    newWaterGrid[counter++] = waterGrid[water++];
+                }
+            }
+            if (counter < newWaterGrid.length) {
+                throw new IllegalArgumentException("Theft order is too short");
+            }
+        } else {
+            SplitMix64 rand = new SplitMix64(seed);
+            // The land that's left, in no particular order, so taking one out is a swap
+            int[] landLeft = new int[landGrid.length];
+            for (int i = 0; i < landLeft.length; i++) {
+                landLeft[i] = i;
+            }
+            int landLeftSize = landLeft.length;
+
+            // Randomly choose either an existing water or steal one from land
+            while (counter < newWaterGrid.length) {
+                if (rand.nextBoolean()) {
+                    // Use existing water
+                    if (water < waterGrid.length) {
+                        newWaterGrid[counter++] = waterGrid[water++];
+                    }
+                } else if (num > 0) {
+                    // Steal from land
+                    int chosen = rand.nextInt(landLeftSize);
+                    stolen[landLeft[chosen]] = true;
+                    newWaterGrid[counter++] = landGrid[landLeft[chosen]];
+                    landLeft[chosen] = landLeft[--landLeftSize];
+                    num--;
+                }
+            }
+        }
+
+        // What's left of the land keeps its order, newIndex maps the old indexes to it (-1 if stolen)
+        int lands = landGrid.length - (newWaterGrid.length - waterGrid.length);
+        int[] newIndex = new int[landGrid.length];
+        int[] newLandGrid = new int[lands];
+        int[] probabilities = new int[lands];
+        Resource[] resources = new Resource[lands];
+        String[] whitelists = new String[lands];
+        byte[] blacklists = new byte[lands];
+        boolean[] harbors = new boolean[lands];
+        int next = 0;
+        for (int i = 0; i < landGrid.length; i++) {
+            if (stolen[i]) {
+                newIndex[i] = -1;
+                continue;
+            }
+            newIndex[i] = next;
+            newLandGrid[next] = landGrid[i];
+            probabilities[next] = mapBuilder.getLandGridProbabilities()[i];
+            resources[next] = mapBuilder.getLandGridResources()[i];
+            whitelists[next] = mapBuilder.getLandGridWhitelists()[i];
+            blacklists[next] = mapBuilder.getPlacementBlacklists()[i];
+            harbors[next] = landWithHarbors[i];
+            next++;
+        }
+
+        int[] order = mapBuilder.getLandGridOrder();
+        if (order != null) {
+            int[] newOrder = new int[order.length];
+            int ordered = 0;
+            for (int land : order) {
+                if (land < 0 || land >= newIndex.length) {
+                    // Out of range either way, leave it for the validator to report
+                    newOrder[ordered++] = land;
+                } else if (newIndex[land] >= 0) {
+                    newOrder[ordered++] = newIndex[land];
+                }
+            }
+            mapBuilder.setLandGridOrder(Arrays.copyOf(newOrder, ordered));
+        }
+
+        mapBuilder.setLandWater(newWaterGrid.length - waterGrid.length)
+                .setLandWaterSeed(theftOrder == null ? seed : 0)
+                .setFromTheftOrder(theftOrder != null)
+                .setLandHexes(newLandGrid)
+                .setLandGridProbabilities(probabilities)
+                .setLandGridResources(resources)
+                .setLandGridWhitelists(whitelists)
+                .setPlacementBlacklists(blacklists)
+                .setWaterHexes(newWaterGrid);
+        return harbors;
+    }
+
+    /**
+     * Which land tiles haven't been stolen yet, as a Fenwick tree of counts, so the n-th one left
+     * (what old theft orders recorded) can be found and taken out in O(log n) rather than
+     * shifting a list.
+     */
+    private static final class LandLeft {
+        private final int[] tree;
+        private final int topBit;
+
+        LandLeft(int size) {
+            tree = new int[size + 1];
+            for (int i = 1; i <= size; i++) {
+                tree[i]++;
+                int parent = i + (i & -i);
+                if (parent <= size) {
+                    tree[parent] += tree[i];
+                }
+            }
+            topBit = Integer.highestOneBit(Math.max(size, 1));
+        }
+
+        /** Takes out the n-th land tile that's left and returns its index in the land grid. */
+        int remove(int n) {
+            int size = tree.length - 1;
+            int index = 0;
+            int left = n + 1;
+            for (int step = topBit; step > 0; step >>= 1) {
+                if (index + step <= size && tree[index + step] < left) {
+                    index += step;
+                    left -= tree[index];
+                }
+            }
+            if (index >= size) {
+                throw new IllegalArgumentException("No land left at " + n);
+            }
+            for (int i = index + 1; i <= size; i += i & -i) {
+                tree[i]--;
+            }
+            return index;
+        }
+    }
+
+    private static int[] readIntArray(JsonReader reader) throws IOException, JSONException {
+        IntList ints = new IntList();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            ints.add(reader.nextInt());
+        }
+        reader.endArray();
+        return ints.toArray();
+    }
+
+    private static Resource[] readResourceArray(JsonReader reader) throws IOException, JSONException {
+        List<Resource> resources = new ArrayList<Resource>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            resources.add(Resource.getResourceByJson(reader.nextString()));
+        }
+        reader.endArray();
+        return resources.toArray(new Resource[resources.size()]);
+    }
+
+    /** Reads an array of { "x": x, "y": y } objects into packed hexes. */
+    private static int[] readHexArray(JsonReader reader) throws IOException, JSONException {
+        IntList hexes = new IntList();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int x = Integer.MIN_VALUE;
+            int y = Integer.MIN_VALUE;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (X.equals(key)) {
+                    x = reader.nextInt();
+                } else if (Y.equals(key)) {
+                    y = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            hexes.add(packXY(x, y));
+        }
+        reader.endArray();
+        return hexes.toArray();
+    }
+
+    private static int packXY(int x, int y) throws JSONException {
+        if (x == Integer.MIN_VALUE) {
+            throw notFound(X);
+        }
+        if (y == Integer.MIN_VALUE) {
+            throw notFound(Y);
+        }
+        return Hex.pack(x, y);
+    }
+
+    private static boolean[] setLandGridAndLandWithHarborsGridFromJson(CatanMap.Builder mapBuilder, JsonReader reader) throws IOException, JSONException {
+        IntList landGrid = new IntList();
+        List<String> whitelistGrid = new ArrayList<String>();
+        IntList probGrid = new IntList();
+        List<Resource> resGrid = new ArrayList<Resource>();
+        IntList harborGrid = new IntList();
+        IntList placementBlacklists = new IntList();
+
+        reader.beginArray();
+        for (int i = 0; reader.hasNext(); i++) {
+            int x = Integer.MIN_VALUE;
+            int y = Integer.MIN_VALUE;
+            boolean harbor = true; // default to true
+            String whitelist = null;
+            int prob = Integer.MAX_VALUE;
+            Resource res = null;
+            int blacklist = 0;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (X.equals(key)) {
+                    x = reader.nextInt();
+                } else if (Y.equals(key)) {
+                    y = reader.nextInt();
+                } else if (HARBOR.equals(key)) {
+                    harbor = reader.nextBoolean();
+                } else if (WHITELIST.equals(key)) {
+                    whitelist = reader.nextString();
+                } else if (PROBABILITY.equals(key)) {
+                    prob = reader.nextInt();
+                } else if (RESOURCE.equals(key)) {
+                    res = Resource.getResourceByJson(reader.nextString());
+                } else if (PLACEMENT_BLACKLIST.equals(key)) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        int direction = reader.nextInt();
+                        if (direction < 0 || direction > 5) {
+                            throw new JSONException("Expected a direction from 0 to 5 but was " + direction);
+                        }
+                        blacklist |= 1 << direction;
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            landGrid.add(packXY(x, y));
+            harborGrid.add(harbor ? 1 : 0);
+            whitelistGrid.add(whitelist);
+            probGrid.add(prob);
+            resGrid.add(res);
+            placementBlacklists.add(blacklist);
+        }
+        reader.endArray();
+
+        boolean[] landWithHarbors = new boolean[harborGrid.size()];
+        for (int i = 0; i < landWithHarbors.length; i++) {
+            landWithHarbors[i] = harborGrid.get(i) != 0;
+        }
+
+        mapBuilder.setLandHexes(landGrid.toArray())
+                .setLandGridWhitelists(whitelistGrid.toArray(new String[whitelistGrid.size()]))
+                .setLandGridProbabilities(probGrid.toArray())
+                .setLandGridResources(resGrid.toArray(new Resource[resGrid.size()]))
+                .setPlacementBlacklists(toBytes(placementBlacklists));
+
+        return landWithHarbors;
+    }
+
+    private static void setLandWhitelists(CatanMap.Builder mapBuilder, JsonReader reader) throws IOException, JSONException {
+        Map<String, List<Resource>> resourceWhitelists = new HashMap<String, List<Resource>>();
+        Map<String, List<Integer>> probsWhitelists = new HashMap<String, List<Integer>>();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String whitelistKey = null;
+            String type = null;
+            // The type might come after the values, so hang on to them as strings until the end
+            List<String> values = new ArrayList<String>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String key = reader.nextName();
+                if (KEY.equals(key)) {
+                    whitelistKey = reader.nextString();
+                } else if (TYPE.equals(key)) {
+                    type = reader.nextString();
+                } else if (VALUE.equals(key)) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        values.add(reader.nextString());
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (whitelistKey == null) {
+                throw notFound(KEY);
+            }
+            if (type == null) {
+                throw notFound(TYPE);
+            }
+
+            if (type.equals("resource")) {
+                List<Resource> resources = new ArrayList<Resource>();
+                for (String value : values) {
+                    resources.add(Resource.getResourceByJson(value));
+                }
+                resourceWhitelists.put(whitelistKey, resources);
+            } else if (type.equals("probability")) {
+                List<Integer> probs = new ArrayList<Integer>();
+                for (String value : values) {
+                    try {
+                        probs.add(Integer.parseInt(value));
+                    } catch (NumberFormatException e) {
+                        throw new JSONException("Expected an int but was " + value);
+                    }
+                }
+                probsWhitelists.put(whitelistKey, probs);
+            }
+        }
+        reader.endArray();
+
+        mapBuilder.setLandResourceWhitelists(resourceWhitelists)
+                .setLandProbabilityWhitelists(probsWhitelists);
+    }
+
+    private static void setResourcesFromJson(CatanMap.Builder mapBuilder, JsonReader reader) throws IOException, JSONException {
+        Resource[] resourceArray = readResourceArray(reader);
+        mapBuilder.setAvailableResources(resourceArray);
+
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (Resource resource : resourceArray) {
+            String key = resource == null ? null : resource.jsonKey;
+            if (counts.containsKey(key)) {
+                counts.put(key, counts.get(key) + 1);
+            } else {
+                counts.put(key, 1);
+            }
+        }
+
+        int low = Integer.MAX_VALUE;
+        int high = Integer.MIN_VALUE;
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            if ("desert".equals(count.getKey()) || "gold".equals(count.getKey())) {
+                continue;
+            }
+
+            if (count.getValue() > high) {
+                high = count.getValue();
+            }
+            if (count.getValue() < low) {
+                low = count.getValue();
+            }
+        }
+        mapBuilder.setLowResourceNumber(low)
+                .setHighResourceNumber(high);
+    }
+
+    private static void checkHas(Object value, String key) throws JSONException {
+        if (value == null) {
+            throw notFound(key);
+        }
+    }
+
+    private static JSONException notFound(String key) {
+        return new JSONException("JSONObject[\"" + key + "\"] not found.");
+    }
+}
@@ -0,0 +1,526 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that a generated CatanMap hangs together, so a broken map is caught when it's generated
+ * instead of when the app deals a board on it. Every table is walked once and every check only
+ * looks at a tile's own row plus the handful of rows it points at, so the whole thing is linear
+ * in the size of the map and cheap enough to run on every generation.
+ *
+ * Everything wrong is reported, not just the first thing. Checks that need a table that's
+ * missing or the wrong size are skipped, with the table itself reported instead.
+ */
+public final class CatanMapValidator {
+    // Prevent instantiation
+    private CatanMapValidator() {}
+
+    /** Returns a description of everything wrong with map, or an empty list if nothing is. */
+    public static List<String> validate(CatanMap map) {
+        List<String> violations = new ArrayList<String>();
+
+        if (map.name == null) {
+            violations.add("name is missing");
+        }
+        if (map.lowResourceNumber <= 0 || map.highResourceNumber <= 0) {
+            violations.add("Resource numbers aren't positive: low " + map.lowResourceNumber
+                    + ", high " + map.highResourceNumber);
+        }
+        if (map.landHexes == null || map.waterHexes == null) {
+            violations.add("Land or water grid is missing");
+            return violations;
+        }
+        int lands = map.landHexes.length;
+        int waters = map.waterHexes.length;
+
+        HexIndex landIndex = new HexIndex(map.landHexes);
+        checkGrid(map.landHexes, landIndex, "Land", violations);
+        HexIndex waterIndex = new HexIndex(map.waterHexes);
+        checkGrid(map.waterHexes, waterIndex, "Water", violations);
+        for (int i = 0; i < waters; i++) {
+            if (landIndex.contains(map.waterHexes[i])) {
+                violations.add("Water " + i + " " + hex(map.waterHexes[i]) + " is also land");
+            }
+        }
+
+        // Per-land tables, land turned into water (land_water) has its entries dropped
+        boolean landGridsOk = checkLandLength(map, "landGridProbabilities", length(map.landGridProbabilities), violations)
+                & checkLandLength(map, "landGridResources", length(map.landGridResources), violations)
+                & checkLandLength(map, "landGridWhitelists", length(map.landGridWhitelists), violations)
+                & checkLandLength(map, "placementBlacklists", length(map.placementBlacklists), violations);
+
+        if (checkRows("landNeighbors", map.landNeighbors, lands, violations)) {
+            checkLandNeighbors(map, landIndex, violations);
+        }
+        if (checkRows("waterNeighbors", map.waterNeighbors, waters, violations)) {
+            checkWaterNeighbors(map, violations);
+        }
+        if (checkRows("waterWaterNeighbors", map.waterWaterNeighbors, waters, violations)) {
+            checkWaterWaterNeighbors(map, violations);
+        }
+        if (checkRows("harborLines", map.harborLines, waters, violations)) {
+            checkHarbors(map, violations);
+        }
+
+        boolean intersectionsOk = map.landIntersections != null;
+        if (intersectionsOk) {
+            intersectionsOk = checkIntersections(map, violations);
+        } else {
+            violations.add("landIntersections is missing");
+        }
+        if (intersectionsOk && checkRows("landIntersectionIndexes", map.landIntersectionIndexes, lands, violations)) {
+            checkIntersectionIndexes(map, violations);
+        }
+        if (intersectionsOk && map.placementBlacklists != null) {
+            checkPlacementIndexes(map, violations);
+        }
+
+        if (landGridsOk) {
+            checkDeals(map, violations);
+        }
+        return violations;
+    }
+
+    /** Checks that no hexagon shows up twice. */
+    private static void checkGrid(int[] hexes, HexIndex index, String what, List<String> violations) {
+        for (int i = 0; i < hexes.length; i++) {
+            int first = index.indexOf(hexes[i]);
+            if (first != i) {
+                violations.add(what + " " + i + " " + hex(hexes[i]) + " is the same tile as " + first);
+            }
+        }
+    }
+
+    private static boolean checkLandLength(CatanMap map, String table, int length, List<String> violations) {
+        int lands = map.landHexes.length;
+        if (length < 0) {
+            violations.add(table + " is missing");
+            return false;
+        }
+        if (length != lands) {
+            violations.add(table + " has " + length + " entries for " + lands + " land tiles");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean checkRows(String table, IntTable rows, int expected, List<String> violations) {
+        if (rows == null) {
+            violations.add(table + " is missing");
+            return false;
+        }
+        if (rows.rows() != expected) {
+            violations.add(table + " has " + rows.rows() + " rows for " + expected + " tiles");
+            return false;
+        }
+        return true;
+    }
+
+    /** Every neighbor is a distinct adjacent land tile, and lists this one back. */
+    private static void checkLandNeighbors(CatanMap map, HexIndex landIndex, List<String> violations) {
+        IntTable neighbors = map.landNeighbors;
+        int lands = map.landHexes.length;
+        for (int i = 0; i < lands; i++) {
+            // Every adjacent land tile has to be listed, so count them to compare
+            int adjacent = 0;
+            for (int d = 0; d < 6; d++) {
+                if (landIndex.contains(Hex.neighbor(map.landHexes[i], d))) {
+                    adjacent++;
+                }
+            }
+            if (neighbors.rowLength(i) != adjacent) {
+                violations.add("landNeighbors " + i + " lists " + neighbors.rowLength(i) + " neighbors but "
+                        + adjacent + " land tiles touch it");
+            }
+
+            for (int j = neighbors.start(i); j < neighbors.end(i); j++) {
+                int neighbor = neighbors.value(j);
+                if (neighbor < 0 || neighbor >= lands || neighbor == i) {
+                    violations.add("landNeighbors " + i + " lists " + neighbor);
+                    continue;
+                }
+                if (!Hex.isNeighbor(map.landHexes[i], map.landHexes[neighbor])) {
+                    violations.add("landNeighbors " + i + " lists " + neighbor + ", which doesn't touch it");
+                }
+                if (!contains(neighbors, neighbor, i)) {
+                    violations.add("landNeighbors " + i + " lists " + neighbor + " but not the other way around");
+                }
+            }
+        }
+    }
+
+    private static void checkWaterNeighbors(CatanMap map, List<String> violations) {
+        IntTable neighbors = map.waterNeighbors;
+        for (int i = 0; i < map.waterHexes.length; i++) {
+            for (int j = neighbors.start(i); j < neighbors.end(i); j++) {
+                int land = neighbors.value(j);
+                if (land < 0 || land >= map.landHexes.length) {
+                    violations.add("waterNeighbors " + i + " lists " + land);
+                } else if (!Hex.isNeighbor(map.waterHexes[i], map.landHexes[land])) {
+                    violations.add("waterNeighbors " + i + " lists land " + land + ", which doesn't touch it");
+                }
+            }
+        }
+    }
+
+    private static void checkWaterWaterNeighbors(CatanMap map, List<String> violations) {
+        IntTable neighbors = map.waterWaterNeighbors;
+        for (int i = 0; i < map.waterHexes.length; i++) {
+            for (int j = neighbors.start(i); j < neighbors.end(i); j++) {
+                int water = neighbors.value(j);
+                if (water < 0 || water >= map.waterHexes.length || water == i) {
+                    violations.add("waterWaterNeighbors " + i + " lists " + water);
+                } else if (!Hex.isNeighbor(map.waterHexes[i], map.waterHexes[water])) {
+                    violations.add("waterWaterNeighbors " + i + " lists water " + water + ", which doesn't touch it");
+                }
+            }
+        }
+    }
+
+    /** Harbor lines go to real corners, and there are enough harbor spots for the harbors. */
+    private static void checkHarbors(CatanMap map, List<String> violations) {
+        IntTable lines = map.harborLines;
+        int spots = 0;
+        for (int i = 0; i < map.waterHexes.length; i++) {
+            for (int j = lines.start(i); j < lines.end(i); j++) {
+                if (lines.value(j) < 0 || lines.value(j) > 5) {
+                    violations.add("harborLines " + i + " goes to corner " + lines.value(j));
+                }
+            }
+            if (lines.rowLength(i) > 0) {
+                spots++;
+            }
+        }
+
+        if (map.orderedHarbors != null) {
+            if (map.orderedHarbors.length > map.waterHexes.length) {
+                violations.add("orderedHarbors has " + map.orderedHarbors.length + " entries for "
+                        + map.waterHexes.length + " water tiles");
+            }
+            spots = 0;
+            for (int i = 0; i < map.orderedHarbors.length && i < map.waterHexes.length; i++) {
+                if (map.orderedHarbors[i] >= 0) {
+                    spots++;
+                    if (lines.rowLength(i) == 0) {
+                        violations.add("orderedHarbors puts a harbor on water " + i + ", which has no harbor lines");
+                    }
+                }
+            }
+        }
+
+        int harbors = 0;
+        if (map.availableHarbors == null) {
+            violations.add("availableHarbors is missing");
+        } else {
+            for (Resource harbor : map.availableHarbors) {
+                if (harbor != null) {
+                    harbors++;
+                }
+            }
+        }
+        if (harbors > spots) {
+            violations.add(harbors + " harbors but only " + spots + " places to put them");
+        }
+    }
+
+    /** Triplets are three land tiles that all touch, and coastal pairs are two. */
+    private static boolean checkIntersections(CatanMap map, List<String> violations) {
+        boolean ok = true;
+        int lands = map.landHexes.length;
+        for (int i = 0; i < map.landIntersections.length; i++) {
+            int[] inter = map.landIntersections[i];
+            if (inter == null || inter.length < 2 || inter.length > 3) {
+                violations.add("landIntersections " + i + " has " + (inter == null ? "no" : inter.length) + " tiles");
+                ok = false;
+                continue;
+            }
+            boolean inRange = true;
+            for (int land : inter) {
+                if (land < 0 || land >= lands) {
+                    violations.add("landIntersections " + i + " lists " + land);
+                    inRange = false;
+                }
+            }
+            if (!inRange) {
+                ok = false;
+                continue;
+            }
+            for (int a = 0; a < inter.length; a++) {
+                for (int b = a + 1; b < inter.length; b++) {
+                    if (!Hex.isNeighbor(map.landHexes[inter[a]], map.landHexes[inter[b]])) {
+                        violations.add("landIntersections " + i + ": " + inter[a] + " and " + inter[b] + " don't touch");
+                    }
+                }
+            }
+        }
+        return ok;
+    }
+
+    /** landIntersectionIndexes is exactly landIntersections turned inside out. */
+    private static void checkIntersectionIndexes(CatanMap map, List<String> violations) {
+        IntTable indexes = map.landIntersectionIndexes;
+        int expected = 0;
+        for (int[] inter : map.landIntersections) {
+            expected += inter.length;
+        }
+        if (indexes.size() != expected) {
+            violations.add("landIntersectionIndexes has " + indexes.size() + " entries for " + expected
+                    + " tiles in landIntersections");
+        }
+        for (int land = 0; land < map.landHexes.length; land++) {
+            for (int j = indexes.start(land); j < indexes.end(land); j++) {
+                int inter = indexes.value(j);
+                if (inter < 0 || inter >= map.landIntersections.length) {
+                    violations.add("landIntersectionIndexes " + land + " lists " + inter);
+                } else if (!contains(map.landIntersections[inter], land)) {
+                    violations.add("landIntersectionIndexes " + land + " lists intersection " + inter
+                            + ", which doesn't have it");
+                }
+            }
+        }
+    }
+
+    /**
+     * Each placement is the corner of one of its intersection's tiles where the other tiles meet:
+     * corner d of a tile is between its neighbors in directions d - 1 and d. Blacklisted corners
+     * have to be left empty.
+     */
+    private static void checkPlacementIndexes(CatanMap map, List<String> violations) {
+        if (map.placementIndexes == null) {
+            violations.add("placementIndexes is missing");
+            return;
+        }
+        if (map.placementIndexes.length != map.landIntersections.length) {
+            violations.add("placementIndexes has " + map.placementIndexes.length + " entries for "
+                    + map.landIntersections.length + " intersections");
+            return;
+        }
+
+        for (int i = 0; i < map.placementIndexes.length; i++) {
+            int[] placement = map.placementIndexes[i];
+            if (placement == null || placement.length == 0) {
+                continue;
+            }
+            if (placement.length != 2 || placement[0] < 0 || placement[0] >= map.landHexes.length
+                    || placement[1] < 0 || placement[1] > 5) {
+                violations.add("placementIndexes " + i + " isn't a land tile and corner");
+                continue;
+            }
+            int land = placement[0];
+            int corner = placement[1];
+            int[] inter = map.landIntersections[i];
+            if (!contains(inter, land)) {
+                violations.add("placementIndexes " + i + " is on land " + land + ", which isn't in its intersection");
+                continue;
+            }
+            int left = Hex.neighbor(map.landHexes[land], (corner + 5) % 6);
+            int right = Hex.neighbor(map.landHexes[land], corner);
+            for (int other : inter) {
+                if (other != land && map.landHexes[other] != left && map.landHexes[other] != right) {
+                    violations.add("placementIndexes " + i + " is corner " + corner + " of land " + land
+                            + ", which land " + other + " doesn't touch");
+                }
+            }
+            if ((map.placementBlacklists[land] & (1 << corner)) != 0) {
+                violations.add("placementIndexes " + i + " is corner " + corner + " of land " + land
+                        + ", which is blacklisted");
+            }
+        }
+    }
+
+    /**
+     * There are enough resources and probabilities to deal onto every land tile that isn't fixed
+     * or whitelisted, every whitelist a tile uses exists, and the map deals enough of what it
+     * allows for its tiles.
+     */
+    private static void checkDeals(CatanMap map, List<String> violations) {
+        if (map.landResourceWhitelists == null || map.landProbabilityWhitelists == null) {
+            violations.add("Whitelists are missing");
+            return;
+        }
+
+        int whitelists = map.whitelistNames.length;
+        for (int id = 0; id < whitelists; id++) {
+            if (!map.whitelistLimitsResources[id] && !map.whitelistLimitsProbabilities[id]) {
+                violations.add("Land uses whitelist " + map.whitelistNames[id] + ", which doesn't exist");
+            }
+        }
+
+        int needResources = 0;
+        int needProbabilities = 0;
+        // How many tiles need a resource/probability from each whitelist
+        int[] resourceTiles = new int[whitelists];
+        int[] probabilityTiles = new int[whitelists];
+        for (int i = 0; i < map.landHexes.length; i++) {
+            int id = map.landGridWhitelistIds[i];
+            boolean resourceWhitelist = id != CatanMap.NO_WHITELIST && map.whitelistLimitsResources[id];
+            boolean probabilityWhitelist = id != CatanMap.NO_WHITELIST && map.whitelistLimitsProbabilities[id];
+            if (map.landGridResources[i] == null) {
+                if (resourceWhitelist) {
+                    resourceTiles[id]++;
+                } else {
+                    needResources++;
+                }
+            }
+            if (map.landGridProbabilities[i] == Integer.MAX_VALUE) {
+                if (probabilityWhitelist) {
+                    probabilityTiles[id]++;
+                } else {
+                    needProbabilities++;
+                }
+            }
+        }
+
+        if (map.availableResources == null) {
+            violations.add("availableResources is missing");
+        } else if (map.availableResources.length < needResources) {
+            violations.add(map.availableResources.length + " resources for " + needResources + " land tiles");
+        }
+        if (map.availableProbabilities == null) {
+            violations.add("availableProbabilities is missing");
+        } else if (map.availableProbabilities.length < needProbabilities) {
+            violations.add(map.availableProbabilities.length + " probabilities for " + needProbabilities + " land tiles");
+        }
+        if (map.availableResources != null && map.availableProbabilities != null) {
+            checkWhitelistsMatchPool(map, resourceTiles, probabilityTiles, violations);
+        }
+
+        if (map.landGridOrder != null) {
+            checkPermutation("landGridOrder", map.landGridOrder, map.landHexes.length, violations);
+        }
+        if (map.landGridOrder != null && map.availableOrderedProbabilities != null && map.availableResources != null) {
+            checkOrderedProbabilities(map, violations);
+        }
+    }
+
+    /**
+     * Ordered probabilities go on every tile along landGridOrder that has no fixed probability,
+     * except the deserts, so there have to be at least that many.
+     */
+    private static void checkOrderedProbabilities(CatanMap map, List<String> violations) {
+        int lands = map.landHexes.length;
+        int fixedDeserts = 0;
+        for (int i = 0; i < lands; i++) {
+            if (map.landGridResources[i] == Resource.DESERT) {
+                fixedDeserts++;
+            }
+        }
+        // Fixed deserts come out of availableResources, like when dealing
+        int dealtDeserts = -fixedDeserts;
+        for (Resource resource : map.availableResources) {
+            if (resource == Resource.DESERT) {
+                dealtDeserts++;
+            }
+        }
+
+        int open = 0;
+        int openDeserts = Math.max(0, dealtDeserts);
+        for (int land : map.landGridOrder) {
+            if (land >= 0 && land < lands && map.landGridProbabilities[land] == Integer.MAX_VALUE) {
+                open++;
+                if (map.landGridResources[land] == Resource.DESERT) {
+                    openDeserts++;
+                }
+            }
+        }
+        if (map.availableOrderedProbabilities.length < open - openDeserts) {
+            violations.add(map.availableOrderedProbabilities.length + " ordered probabilities for "
+                    + (open - openDeserts) + " land tiles");
+        }
+    }
+
+    /**
+     * The map deals at least as many of what each whitelist allows as there are tiles dealt from
+     * it (resourceTiles/probabilityTiles, by id). Fixed pieces are counted too, so this can pass a
+     * map that still runs out, but never fails one that doesn't.
+     */
+    private static void checkWhitelistsMatchPool(CatanMap map, int[] resourceTiles, int[] probabilityTiles,
+            List<String> violations) {
+        int whitelists = map.whitelistNames.length;
+        // Any tile on a whitelist answers for the whitelist
+        int[] tileOf = new int[whitelists];
+        for (int i = map.landHexes.length - 1; i >= 0; i--) {
+            if (map.landGridWhitelistIds[i] != CatanMap.NO_WHITELIST) {
+                tileOf[map.landGridWhitelistIds[i]] = i;
+            }
+        }
+
+        for (int id = 0; id < whitelists; id++) {
+            if (resourceTiles[id] > 0) {
+                int allowed = 0;
+                for (Resource resource : map.availableResources) {
+                    if (resource != null && map.canTakeResource(tileOf[id], resource)) {
+                        allowed++;
+                    }
+                }
+                if (allowed < resourceTiles[id]) {
+                    violations.add("Resource whitelist " + map.whitelistNames[id] + " allows " + allowed
+                            + " of the resources the map deals, for " + resourceTiles[id] + " tiles");
+                }
+            }
+            if (probabilityTiles[id] > 0) {
+                int allowed = 0;
+                for (int probability : map.availableProbabilities) {
+                    if (probability >= 0 && map.canTakeProbability(tileOf[id], probability)) {
+                        allowed++;
+                    }
+                }
+                if (allowed < probabilityTiles[id]) {
+                    violations.add("Probability whitelist " + map.whitelistNames[id] + " allows " + allowed
+                            + " of the probabilities the map deals, for " + probabilityTiles[id] + " tiles");
+                }
+            }
+        }
+    }
+
+    private static void checkPermutation(String table, int[] order, int length, List<String> violations) {
+        if (order.length != length) {
+            violations.add(table + " has " + order.length + " entries for " + length + " tiles");
+            return;
+        }
+        boolean[] seen = new boolean[length];
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] < 0 || order[i] >= length || seen[order[i]]) {
+                violations.add(table + " " + i + " is " + order[i]);
+            } else {
+                seen[order[i]] = true;
+            }
+        }
+    }
+
+    private static boolean contains(IntTable table, int row, int value) {
+        for (int i = table.start(row); i < table.end(row); i++) {
+            if (table.value(i) == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Lengths of the per-land tables, -1 if they're missing
+    private static int length(int[] array) {
+        return array == null ? -1 : array.length;
+    }
+
+    private static int length(byte[] array) {
+        return array == null ? -1 : array.length;
+    }
+
+    private static int length(Object[] array) {
+        return array == null ? -1 : array.length;
+    }
+
+    private static String hex(int hex) {
+        return "(" + Hex.x(hex) + "," + Hex.y(hex) + ")";
+    }
+}
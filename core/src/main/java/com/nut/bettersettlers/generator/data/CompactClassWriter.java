@@ -0,0 +1,466 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the {@link CatanMap.ClassStyle#COMPACT} and {@link CatanMap.ClassStyle#LAZY}
+ * CatanMapProvider source for a map.
+ *
+ * Instead of array literals in init(), which cost several bytes of bytecode per element and run
+ * into the 64KB method limit on the bigger maps, every array is packed into string constants
+ * that the provider decodes when init() runs. Strings live in the constant pool, so neither
+ * init() nor the static initializer grows with the map beyond one instruction per chunk.
+ *
+ * The packing, with each chunk holding whole entries only:
+ * <pre>
+ * ints     "v,v,v,"
+ * table    "v,v,;v,;;n;"   (each row ends with ';', "n;" is a null row)
+ * points   ints, x then y
+ * strings  "a,,b,"         (empty is null)
+ * </pre>
+ */
+final class CompactClassWriter {
+    // Well under the 65535 byte limit on a constant, everything written is ASCII
+    static final int CHUNK_LENGTH = 16384;
+
+    /** The decoders every compact provider carries, so the app doesn't need anything new. */
+    static final String DECODERS = ""
+            + "    private static int[] ints(String[] chunks) {\n"
+            + "        int count = 0;\n"
+            + "        for (String chunk : chunks) {\n"
+            + "            count += count(chunk, 0, chunk.length(), ',');\n"
+            + "        }\n"
+            + "        int[] values = new int[count];\n"
+            + "        int n = 0;\n"
+            + "        for (String chunk : chunks) {\n"
+            + "            n = parse(chunk, 0, chunk.length(), values, n);\n"
+            + "        }\n"
+            + "        return values;\n"
+            + "    }\n"
+            + "\n"
+            + "    private static int[][] table(String[] chunks) {\n"
+            + "        int rows = 0;\n"
+            + "        for (String chunk : chunks) {\n"
+            + "            rows += count(chunk, 0, chunk.length(), ';');\n"
+            + "        }\n"
+            + "        int[][] table = new int[rows][];\n"
+            + "        int row = 0;\n"
+            + "        for (String chunk : chunks) {\n"
+            + "            int start = 0;\n"
+            + "            for (int i = 0; i < chunk.length(); i++) {\n"
+            + "                if (chunk.charAt(i) != ';') {\n"
+            + "                    continue;\n"
+            + "                }\n"
+            + "                if (i > start && chunk.charAt(start) == 'n') {\n"
+            + "                    table[row++] = null;\n"
+            + "                } else {\n"
+            + "                    int[] values = new int[count(chunk, start, i, ',')];\n"
+            + "                    parse(chunk, start, i, values, 0);\n"
+            + "                    table[row++] = values;\n"
+            + "                }\n"
+            + "                start = i + 1;\n"
+            + "            }\n"
+            + "        }\n"
+            + "        return table;\n"
+            + "    }\n"
+            + "\n"
+            + "    private static Point[] points(String[] chunks) {\n"
+            + "        int[] values = ints(chunks);\n"
+            + "        Point[] points = new Point[values.length / 2];\n"
+            + "        for (int i = 0; i < points.length; i++) {\n"
+            + "            points[i] = new Point(values[2 * i], values[2 * i + 1]);\n"
+            + "        }\n"
+            + "        return points;\n"
+            + "    }\n"
+            + "\n"
+            + "    private static byte[] bytes(String[] chunks) {\n"
+            + "        int[] values = ints(chunks);\n"
+            + "        byte[] bytes = new byte[values.length];\n"
+            + "        for (int i = 0; i < bytes.length; i++) {\n"
+            + "            bytes[i] = (byte) values[i];\n"
+            + "        }\n"
+            + "        return bytes;\n"
+            + "    }\n"
+            + "\n"
+            + "    private static String[] strings(String[] chunks) {\n"
+            + "        int count = 0;\n"
+            + "        for (String chunk : chunks) {\n"
+            + "            count += count(chunk, 0, chunk.length(), ',');\n"
+            + "        }\n"
+            + "        String[] strings = new String[count];\n"
+            + "        int n = 0;\n"
+            + "        for (String chunk : chunks) {\n"
+            + "            int start = 0;\n"
+            + "            for (int i = 0; i < chunk.length(); i++) {\n"
+            + "                if (chunk.charAt(i) == ',') {\n"
+            + "                    strings[n++] = i == start ? null : chunk.substring(start, i);\n"
+            + "                    start = i + 1;\n"
+            + "                }\n"
+            + "            }\n"
+            + "        }\n"
+            + "        return strings;\n"
+            + "    }\n"
+            + "\n"
+            + "    private static Resource[] resources(String[] chunks) {\n"
+            + "        String[] names = strings(chunks);\n"
+            + "        Resource[] resources = new Resource[names.length];\n"
+            + "        for (int i = 0; i < names.length; i++) {\n"
+            + "            resources[i] = names[i] == null ? null : Resource.valueOf(names[i]);\n"
+            + "        }\n"
+            + "        return resources;\n"
+            + "    }\n"
+            + "\n"
+            + "    private static int count(String chunk, int start, int end, char c) {\n"
+            + "        int count = 0;\n"
+            + "        for (int i = start; i < end; i++) {\n"
+            + "            if (chunk.charAt(i) == c) {\n"
+            + "                count++;\n"
+            + "            }\n"
+            + "        }\n"
+            + "        return count;\n"
+            + "    }\n"
+            + "\n"
+            + "    /** Parses the \"v,v,\" in chunk[start, end) into values from n on, returns where it stopped. */\n"
+            + "    private static int parse(String chunk, int start, int end, int[] values, int n) {\n"
+            + "        int value = 0;\n"
+            + "        boolean negative = false;\n"
+            + "        for (int i = start; i < end; i++) {\n"
+            + "            char c = chunk.charAt(i);\n"
+            + "            if (c == ',') {\n"
+            + "                values[n++] = negative ? -value : value;\n"
+            + "                value = 0;\n"
+            + "                negative = false;\n"
+            + "            } else if (c == '-') {\n"
+            + "                negative = true;\n"
+            + "            } else {\n"
+            + "                value = value * 10 + (c - '0');\n"
+            + "            }\n"
+            + "        }\n"
+            + "        return n;\n"
+            + "    }\n";
+
+    private final Writer out;
+    private final StringBuilder entry = new StringBuilder();
+    private int chunkLength;
+    // Extra indent for whatever's being written inside the lazy holder class
+    private String indent = "";
+
+    private CompactClassWriter(Writer out) {
+        this.out = out;
+    }
+
+    static void write(CatanMap map, String className, Writer out) throws IOException {
+        new CompactClassWriter(out).writeClass(map, className);
+    }
+
+    static void writeLazy(CatanMap map, String className, Writer out) throws IOException {
+        new CompactClassWriter(out).writeLazyClass(map, className);
+    }
+
+    private void writeClass(CatanMap map, String className) throws IOException {
+        out.write(CatanMap.CLASS_HEADER);
+        out.write("public class ");
+        out.write(className);
+        out.write(" extends CatanMapProvider {\n");
+        writeGridConstants(map);
+        writeTableConstants(map);
+        out.write("\n"
+                + "    @Override\n"
+                + "    public CatanMap init() {\n");
+        writeBuilder(map, false);
+        out.write("        return builder.build();\n"
+                + "    }\n"
+                + "\n");
+        out.write(DECODERS);
+        out.write("}\n");
+    }
+
+    /**
+     * Same as writeClass, except that only the name, title, resource numbers and grids are on the
+     * provider itself. Everything else is in a holder class that the JVM initializes, and builds
+     * the map in, the first time init() is called. Class initialization is thread-safe, so
+     * concurrent callers all get the one map.
+     */
+    private void writeLazyClass(CatanMap map, String className) throws IOException {
+        out.write(CatanMap.CLASS_HEADER);
+        out.write("public class ");
+        out.write(className);
+        out.write(" extends CatanMapProvider {\n");
+        out.write("    public static final String NAME = \"");
+        out.write(map.name);
+        out.write("\";\n"
+                + "    public static final String TITLE = \"");
+        out.write(map.title);
+        out.write("\";\n"
+                + "    public static final int LOW_RESOURCE_NUMBER = ");
+        out.write(Integer.toString(map.lowResourceNumber));
+        out.write(";\n"
+                + "    public static final int HIGH_RESOURCE_NUMBER = ");
+        out.write(Integer.toString(map.highResourceNumber));
+        out.write(";\n"
+                + "\n");
+        writeGridConstants(map);
+        out.write("\n"
+                + "    /** Holds the whole map, built the first time init() is called. */\n"
+                + "    private static final class Holder {\n");
+        indent = "    ";
+        writeTableConstants(map);
+        out.write("\n"
+                + "        static final CatanMap MAP = build();\n"
+                + "\n"
+                + "        private static CatanMap build() {\n");
+        writeBuilder(map, true);
+        out.write("            return builder.build();\n"
+                + "        }\n"
+                + "    }\n"
+                + "\n");
+        indent = "";
+        out.write("    public String getName() {\n"
+                + "        return NAME;\n"
+                + "    }\n"
+                + "\n"
+                + "    public String getTitle() {\n"
+                + "        return TITLE;\n"
+                + "    }\n"
+                + "\n"
+                + "    /** Decodes the land grid without building the rest of the map. */\n"
+                + "    public Point[] getLandGrid() {\n"
+                + "        return points(LAND_GRID);\n"
+                + "    }\n"
+                + "\n"
+                + "    /** Decodes the water grid without building the rest of the map. */\n"
+                + "    public Point[] getWaterGrid() {\n"
+                + "        return points(WATER_GRID);\n"
+                + "    }\n"
+                + "\n"
+                + "    /** Returns the same map every time, it's only built once. */\n"
+                + "    @Override\n"
+                + "    public CatanMap init() {\n"
+                + "        return Holder.MAP;\n"
+                + "    }\n"
+                + "\n");
+        out.write(DECODERS);
+        out.write("}\n");
+    }
+
+    /** Writes the grids as private constants named after their fields. */
+    private void writeGridConstants(CatanMap map) throws IOException {
+        writeHexes("LAND_GRID", map.landHexes);
+        writeHexes("WATER_GRID", map.waterHexes);
+        writeHexes("UNKNOWN_GRID", map.unknownHexes);
+    }
+
+    /** Writes every other packed array as a private constant named after its field. */
+    private void writeTableConstants(CatanMap map) throws IOException {
+        writeStrings("LAND_GRID_WHITELISTS", map.landGridWhitelists);
+        writeInts("LAND_GRID_PROBABILITIES", map.landGridProbabilities);
+        writeResources("LAND_GRID_RESOURCES", map.landGridResources);
+        writeTable("HARBOR_LINES", map.harborLines);
+        writeTable("LAND_NEIGHBORS", map.landNeighbors);
+        writeTable("WATER_NEIGHBORS", map.waterNeighbors);
+        writeTable("WATER_WATER_NEIGHBORS", map.waterWaterNeighbors);
+        writeTable("LAND_INTERSECTIONS", IntTable.of(map.landIntersections));
+        writeTable("LAND_INTERSECTION_INDEXES", map.landIntersectionIndexes);
+        writeTable("PLACEMENT_INDEXES", IntTable.of(map.placementIndexes));
+        writeResources("AVAILABLE_RESOURCES", map.availableResources);
+        writeInts("AVAILABLE_PROBABILITIES", map.availableProbabilities);
+        writeResources("AVAILABLE_HARBORS", map.availableHarbors);
+        writeResources("AVAILABLE_UNKNOWN_RESOURCES", map.availableUnknownResources);
+        writeInts("AVAILABLE_UNKNOWN_PROBABILITIES", map.availableUnknownProbabilities);
+        writeBytes("PLACEMENT_BLACKLISTS", map.placementBlacklists);
+        if (map.landGridOrder != null) {
+            writeInts("LAND_GRID_ORDER", map.landGridOrder);
+        }
+        if (map.availableOrderedProbabilities != null) {
+            writeInts("AVAILABLE_ORDERED_PROBABILITIES", map.availableOrderedProbabilities);
+        }
+        if (map.orderedHarbors != null) {
+            writeInts("ORDERED_HARBORS", map.orderedHarbors);
+        }
+    }
+
+    /**
+     * Writes the body of init() up to, but not including, the return. The lazy style takes the
+     * name, title and resource numbers from the provider's constants.
+     */
+    private void writeBuilder(CatanMap map, boolean lazy) throws IOException {
+        out.write(indent);
+        out.write("        CatanMap.Builder builder = CatanMap.newBuilder()\n");
+        writeSetter("setName", lazy ? "NAME" : "\"" + map.name + "\"");
+        writeSetter("setTitle", lazy ? "TITLE" : "\"" + map.title + "\"");
+        writeSetter("setLowResourceNumber", lazy ? "LOW_RESOURCE_NUMBER" : Integer.toString(map.lowResourceNumber));
+        writeSetter("setHighResourceNumber", lazy ? "HIGH_RESOURCE_NUMBER" : Integer.toString(map.highResourceNumber));
+        writeSetter("setLandGrid", "points(LAND_GRID)");
+        writeSetter("setLandGridWhitelists", "strings(LAND_GRID_WHITELISTS)");
+        writeSetter("setLandGridProbabilities", "ints(LAND_GRID_PROBABILITIES)");
+        writeSetter("setLandGridResources", "resources(LAND_GRID_RESOURCES)");
+        writeSetter("setWaterGrid", "points(WATER_GRID)");
+        writeSetter("setHarborLines", "table(HARBOR_LINES)");
+        writeSetter("setLandNeighbors", "table(LAND_NEIGHBORS)");
+        writeSetter("setWaterNeighbors", "table(WATER_NEIGHBORS)");
+        writeSetter("setWaterWaterNeighbors", "table(WATER_WATER_NEIGHBORS)");
+        writeSetter("setLandIntersections", "table(LAND_INTERSECTIONS)");
+        writeSetter("setLandIntersectionIndexes", "table(LAND_INTERSECTION_INDEXES)");
+        writeSetter("setPlacementIndexes", "table(PLACEMENT_INDEXES)");
+        writeSetter("setAvailableResources", "resources(AVAILABLE_RESOURCES)");
+        writeSetter("setAvailableProbabilities", "ints(AVAILABLE_PROBABILITIES)");
+        writeSetter("setAvailableHarbors", "resources(AVAILABLE_HARBORS)");
+        writeSetter("setAvailableUnknownResources", "resources(AVAILABLE_UNKNOWN_RESOURCES)");
+        writeSetter("setAvailableUnknownProbabilities", "ints(AVAILABLE_UNKNOWN_PROBABILITIES)");
+        out.write(indent);
+        out.write("            .setUnknownGrid(points(UNKNOWN_GRID));\n");
+        CatanMap.writeResourceMap(out, map.landResourceWhitelists, indent + "        ");
+        out.write("\n");
+        CatanMap.writeIntMap(out, map.landProbabilityWhitelists, indent + "        ");
+        out.write("\n");
+        writeStatement("builder.setPlacementBlacklists(bytes(PLACEMENT_BLACKLISTS));");
+        if (map.landGridOrder != null) {
+            writeStatement("builder.setLandGridOrder(ints(LAND_GRID_ORDER));");
+        }
+        if (map.availableOrderedProbabilities != null) {
+            writeStatement("builder.setAvailableOrderedProbabilities(ints(AVAILABLE_ORDERED_PROBABILITIES));");
+        }
+        if (map.orderedHarbors != null) {
+            writeStatement("builder.setOrderedHarbors(ints(ORDERED_HARBORS));");
+        }
+        if (map.landWater > 0) {
+            out.write(indent);
+            out.write("        builder.setLandWater(");
+            out.write(Integer.toString(map.landWater));
+            out.write(")\n");
+            out.write(indent);
+            out.write("            .setLandWaterSeed(");
+            out.write(Long.toString(map.landWaterSeed));
+            out.write("L);\n");
+        }
+    }
+
+    private void writeStatement(String statement) throws IOException {
+        out.write(indent);
+        out.write("        ");
+        out.write(statement);
+        out.write("\n");
+    }
+
+    private void writeSetter(String setter, String value) throws IOException {
+        out.write(indent);
+        out.write("            .");
+        out.write(setter);
+        out.write("(");
+        out.write(value);
+        out.write(")\n");
+    }
+
+    private void writeInts(String constant, int[] values) throws IOException {
+        begin(constant);
+        for (int value : values) {
+            entry.append(value).append(',');
+            add();
+        }
+        end();
+    }
+
+    private void writeBytes(String constant, byte[] values) throws IOException {
+        begin(constant);
+        for (byte value : values) {
+            entry.append(value).append(',');
+            add();
+        }
+        end();
+    }
+
+    private void writeHexes(String constant, int[] hexes) throws IOException {
+        begin(constant);
+        for (int hex : hexes) {
+            entry.append(Hex.x(hex)).append(',').append(Hex.y(hex)).append(',');
+            add();
+        }
+        end();
+    }
+
+    private void writeTable(String constant, IntTable table) throws IOException {
+        begin(constant);
+        for (int i = 0; i < table.rows(); i++) {
+            if (table.isNull(i)) {
+                entry.append('n');
+            }
+            for (int j = table.start(i); j < table.end(i); j++) {
+                entry.append(table.value(j)).append(',');
+            }
+            entry.append(';');
+            add();
+        }
+        end();
+    }
+
+    private void writeStrings(String constant, String[] strings) throws IOException {
+        begin(constant);
+        for (String string : strings) {
+            checkPackable(string);
+            if (string != null) {
+                entry.append(string);
+            }
+            entry.append(',');
+            add();
+        }
+        end();
+    }
+
+    private void writeResources(String constant, Resource[] resources) throws IOException {
+        begin(constant);
+        for (Resource resource : resources) {
+            if (resource != null) {
+                entry.append(resource.name());
+            }
+            entry.append(',');
+            add();
+        }
+        end();
+    }
+
+    /** Whitelist names end up as variable names anyway, but they mustn't break the packing. */
+    private static void checkPackable(String string) {
+        if (string == null) {
+            return;
+        }
+        if (string.isEmpty()) {
+            throw new IllegalArgumentException("Can't pack an empty string");
+        }
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == ',' || c == '"' || c == '\\' || c < ' ' || c > '~') {
+                throw new IllegalArgumentException("Can't pack \"" + string + "\"");
+            }
+        }
+    }
+
+    private void begin(String constant) throws IOException {
+        out.write(indent);
+        out.write("    private static final String[] ");
+        out.write(constant);
+        out.write(" = {\n");
+        out.write(indent);
+        out.write("        \"");
+        chunkLength = 0;
+    }
+
+    /** Moves the entry into the current chunk, starting a new chunk if it doesn't fit. */
+    private void add() throws IOException {
+        if (chunkLength > 0 && chunkLength + entry.length() > CHUNK_LENGTH) {
+            out.write("\",\n");
+            out.write(indent);
+            out.write("        \"");
+            chunkLength = 0;
+        }
+        out.append(entry);
+        chunkLength += entry.length();
+        entry.setLength(0);
+    }
+
+    private void end() throws IOException {
+        out.write("\"\n");
+        out.write(indent);
+        out.write("    };\n");
+    }
+}
@@ -0,0 +1,195 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Wall time and allocated bytes for each phase of generating one map, for tracking regressions
+ * and seeing which phase dominates on which map.
+ *
+ * Phases are timed as laps: {@link #start} starts the clock and each {@link #lap} charges
+ * everything since the last lap to a phase, so a phase that's entered several times (like READ,
+ * which happens whenever the JSON reader needs more input) adds up. Everything is measured on the
+ * calling thread, so a profile must only be used by one thread at a time.
+ *
+ * Allocated bytes come from the JVM's per-thread allocation counter. Where there isn't one (on
+ * Android, or a JVM without com.sun.management) they read as {@link #UNTRACKED}. Reading the
+ * counter allocates a few dozen bytes itself, which shows up in each lap.
+ */
+public final class GenerationProfile {
+    /** The phases of generating a map, in the order they happen. */
+    public enum Phase {
+        /** Reading the raw JSON off the stream. */
+        READ,
+        /** Parsing the JSON, apart from the grids. */
+        PARSE,
+        /** Parsing the land, water and unknown grids. */
+        GRIDS,
+        /** Turning land_water tiles into water. */
+        LAND_WATER,
+        HARBOR_LINES,
+        /** Land neighbors, intersections and placement indexes. */
+        NEIGHBORS,
+        INTERSECTION_INDEXES,
+        /** Building the CatanMap out of the builder. */
+        BUILD,
+        VALIDATE,
+        /** Writing the outputs (java and/or binary) in memory. */
+        CODEGEN
+    }
+
+    /** What getBytes returns when there's no allocation counter to read. */
+    public static final long UNTRACKED = -1;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    // com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long), if there is one
+    private static final Object THREAD_BEAN;
+    private static final Method ALLOCATED_BYTES;
+
+    static {
+        Object bean = null;
+        Method method = null;
+        try {
+            bean = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean").invoke(null);
+            Class<?> sunBean = Class.forName("com.sun.management.ThreadMXBean");
+            if (sunBean.isInstance(bean)
+                    && (Boolean) sunBean.getMethod("isThreadAllocatedMemorySupported").invoke(bean)
+                    && (Boolean) sunBean.getMethod("isThreadAllocatedMemoryEnabled").invoke(bean)) {
+                method = sunBean.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        } catch (Exception e) {
+            // Not on this platform
+            method = null;
+        }
+        THREAD_BEAN = method == null ? null : bean;
+        ALLOCATED_BYTES = method;
+    }
+
+    private final long[] nanos = new long[PHASES.length];
+    private final long[] bytes = new long[PHASES.length];
+    private long lastNanos;
+    private long lastBytes;
+
+    /** Returns whether allocated bytes are tracked on this platform. */
+    public static boolean isAllocationTracked() {
+        return ALLOCATED_BYTES != null;
+    }
+
+    /** Starts (or restarts) the clock without charging anything to a phase. */
+    public void start() {
+        lastBytes = allocatedBytes();
+        lastNanos = System.nanoTime();
+    }
+
+    /** Charges everything since the last lap (or start) to phase. */
+    public void lap(Phase phase) {
+        long now = System.nanoTime();
+        long allocated = allocatedBytes();
+        nanos[phase.ordinal()] += now - lastNanos;
+        bytes[phase.ordinal()] += allocated - lastBytes;
+        // Reread the counter so reading it isn't charged to the next phase
+        lastBytes = allocatedBytes();
+        lastNanos = System.nanoTime();
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /** Bytes allocated during phase, or UNTRACKED. */
+    public long getBytes(Phase phase) {
+        return isAllocationTracked() ? bytes[phase.ordinal()] : UNTRACKED;
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+        return total;
+    }
+
+    /** Wraps is so that time spent reading from it is charged to READ, and the rest to PARSE. */
+    InputStream timeReads(InputStream is) {
+        return new FilterInputStream(is) {
+            @Override
+            public int read() throws IOException {
+                lap(Phase.PARSE);
+                int read = super.read();
+                lap(Phase.READ);
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                lap(Phase.PARSE);
+                int read = super.read(b, off, len);
+                lap(Phase.READ);
+                return read;
+            }
+        };
+    }
+
+    private static long allocatedBytes() {
+        if (ALLOCATED_BYTES == null) {
+            return 0;
+        }
+        try {
+            return (Long) ALLOCATED_BYTES.invoke(THREAD_BEAN, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Writes the profiles (map name to profile) as a JSON object of maps, each an object of
+     * phases (lowercase) to { "nanos": n, "bytes": n }.
+     */
+    public static void writeJson(Map<String, GenerationProfile> profiles, Writer out) throws IOException {
+        out.write("{");
+        boolean firstMap = true;
+        for (Map.Entry<String, GenerationProfile> entry : profiles.entrySet()) {
+            out.write(firstMap ? "\n" : ",\n");
+            firstMap = false;
+            out.write("  \"");
+            out.write(entry.getKey());
+            out.write("\": {");
+            for (int i = 0; i < PHASES.length; i++) {
+                out.write(i == 0 ? "\n" : ",\n");
+                out.write("    \"");
+                out.write(PHASES[i].name().toLowerCase(Locale.US));
+                out.write("\": { \"nanos\": ");
+                out.write(Long.toString(entry.getValue().getNanos(PHASES[i])));
+                out.write(", \"bytes\": ");
+                out.write(Long.toString(entry.getValue().getBytes(PHASES[i])));
+                out.write(" }");
+            }
+            out.write("\n  }");
+        }
+        out.write("\n}\n");
+    }
+
+    /** Writes the profiles (map name to profile) as CSV, one map,phase,nanos,bytes row per phase. */
+    public static void writeCsv(Map<String, GenerationProfile> profiles, Writer out) throws IOException {
+        out.write("map,phase,nanos,bytes\n");
+        for (Map.Entry<String, GenerationProfile> entry : profiles.entrySet()) {
+            for (Phase phase : PHASES) {
+                out.write(entry.getKey());
+                out.write(",");
+                out.write(phase.name().toLowerCase(Locale.US));
+                out.write(",");
+                out.write(Long.toString(entry.getValue().getNanos(phase)));
+                out.write(",");
+                out.write(Long.toString(entry.getValue().getBytes(phase)));
+                out.write("\n");
+            }
+        }
+    }
+}
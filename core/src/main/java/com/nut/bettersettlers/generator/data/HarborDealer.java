@@ -0,0 +1,169 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Deals availableHarbors onto a board's water tiles so that no two harbors touch the same
+ * intersection.
+ *
+ * A harbor faces one edge of its water tile, position p being the edge between corners p and
+ * p + 1 of the tile's harborLines. If the map has orderedHarbors those are the only spots and
+ * the harbors are shuffled over them. Otherwise every such edge of every coastal water tile is a
+ * candidate, the candidates are taken in a seeded random order, and one is kept if its water
+ * tile is still free and neither of its corners is already used by another harbor.
+ *
+ * Every corner a harbor can touch is numbered once up front as a map-wide intersection, so the
+ * corners used so far are just a bitset and checking a candidate is two bit tests. Doesn't
+ * allocate per deal. Not safe to share between threads, use one per thread.
+ */
+public final class HarborDealer {
+    private static final int NONE = CatanBoard.NONE;
+
+    private final SplitMix64 rand = new SplitMix64(0);
+    private final boolean ordered;
+    private final int[] harborPool;
+
+    // Candidate c is water candidateWater[c] facing position candidatePosition[c], touching
+    // intersections candidateCorners[2c] and candidateCorners[2c + 1]
+    private final int[] candidateWater;
+    private final int[] candidatePosition;
+    private final int[] candidateCorners;
+
+    // Scratch space reused by every deal
+    private final int[] pool;
+    private final int[] order;
+    private final long[] usedCorners;
+
+    public HarborDealer(CatanMap map) {
+        IntList harbors = new IntList();
+        for (Resource harbor : map.availableHarbors) {
+            if (harbor != null) {
+                harbors.add(harbor.ordinal());
+            }
+        }
+        harborPool = harbors.toArray();
+
+        ordered = map.orderedHarbors != null;
+        IntList waters = new IntList();
+        IntList positions = new IntList();
+        IntList corners = new IntList();
+        Map<Long, Integer> intersections = new HashMap<Long, Integer>();
+        IntTable lines = map.harborLines;
+        for (int i = 0; i < map.waterHexes.length; i++) {
+            int start = lines.start(i);
+            for (int p = 0; p + 1 < lines.rowLength(i); p++) {
+                if (ordered && (i >= map.orderedHarbors.length || map.orderedHarbors[i] != p)) {
+                    continue;
+                }
+                int first = lines.value(start + p);
+                int second = lines.value(start + p + 1);
+                if (second != (first + 1) % 6) {
+                    // Not an edge, the coast skips over part of the tile here
+                    continue;
+                }
+                waters.add(i);
+                positions.add(p);
+                corners.add(intersection(intersections, map.waterHexes[i], first));
+                corners.add(intersection(intersections, map.waterHexes[i], second));
+            }
+        }
+        candidateWater = waters.toArray();
+        candidatePosition = positions.toArray();
+        candidateCorners = corners.toArray();
+
+        pool = new int[harborPool.length];
+        order = new int[candidateWater.length];
+        usedCorners = new long[(intersections.size() + 63) / 64];
+    }
+
+    private static int intersection(Map<Long, Integer> intersections, int hex, int corner) {
+        Long key = Hex.corner(hex, corner);
+        Integer id = intersections.get(key);
+        if (id == null) {
+            id = intersections.size();
+            intersections.put(key, id);
+        }
+        return id;
+    }
+
+    /** How many places there are to put a harbor. */
+    public int getCandidates() {
+        return candidateWater.length;
+    }
+
+    /**
+     * Deals the harbors for seed onto board.harbors and board.harborPositions. Returns false if
+     * they couldn't all be kept apart, in which case the ones that didn't fit are put wherever
+     * there's a free water tile left, or left out if there isn't one.
+     */
+    public boolean deal(long seed, CatanBoard board) {
+        rand.setSeed(seed);
+        return deal(rand, board.harbors, board.harborPositions);
+    }
+
+    /** Same as deal(seed, board), drawing from rand. */
+    boolean deal(SplitMix64 rand, int[] harbors, int[] positions) {
+        Arrays.fill(harbors, NONE);
+        Arrays.fill(positions, NONE);
+        Arrays.fill(usedCorners, 0);
+
+        // Draw the harbors in a random order, so which ones get left over isn't fixed
+        System.arraycopy(harborPool, 0, pool, 0, harborPool.length);
+        for (int i = 0; i < pool.length; i++) {
+            swap(pool, i, i + rand.nextInt(pool.length - i));
+        }
+
+        int candidates = candidateWater.length;
+        for (int i = 0; i < candidates; i++) {
+            order[i] = i;
+        }
+
+        // Shuffle the candidates only as far as it takes to place everything
+        int placed = 0;
+        int i = 0;
+        for (; i < candidates && placed < pool.length; i++) {
+            swap(order, i, i + rand.nextInt(candidates - i));
+            int c = order[i];
+            int water = candidateWater[c];
+            if (harbors[water] == NONE && !isUsed(candidateCorners[2 * c]) && !isUsed(candidateCorners[2 * c + 1])) {
+                harbors[water] = pool[placed++];
+                positions[water] = candidatePosition[c];
+                use(candidateCorners[2 * c]);
+                use(candidateCorners[2 * c + 1]);
+            }
+        }
+        if (placed == pool.length) {
+            return true;
+        }
+
+        // Out of room, put the rest on any water that's left, in the same random order
+        for (int j = 0; j < candidates && placed < pool.length; j++) {
+            if (j >= i) {
+                swap(order, j, j + rand.nextInt(candidates - j));
+            }
+            int c = order[j];
+            int water = candidateWater[c];
+            if (harbors[water] == NONE) {
+                harbors[water] = pool[placed++];
+                positions[water] = candidatePosition[c];
+            }
+        }
+        return false;
+    }
+
+    private boolean isUsed(int corner) {
+        return (usedCorners[corner >>> 6] & (1L << corner)) != 0;
+    }
+
+    private void use(int corner) {
+        usedCorners[corner >>> 6] |= 1L << corner;
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+}
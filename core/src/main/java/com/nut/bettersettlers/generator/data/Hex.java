@@ -0,0 +1,119 @@
+package com.nut.bettersettlers.generator.data;
+
+/**
+ * Hexagon coordinates packed into a single int as (x << 16) + y, with x and y each in the range
+ * of a short. The packing is linear, so stepping to a neighbor is a single add of one of the
+ * precomputed {@link #NEIGHBOR_OFFSETS} and never allocates.
+ *
+ * Directions are numbered like the rest of the generator: 0 is TL, 1 is TR, 2 is R, 3 is BR,
+ * 4 is BL and 5 is L.
+ */
+public final class Hex {
+    /** How much x changes going in each direction. */
+    private static final int[] DX = { -1, 1, 2, 1, -1, -2 };
+
+    /** How much y changes going in each direction. */
+    private static final int[] DY = { -1, -1, 0, 1, 1, 0 };
+
+    /** The packed difference between a hexagon and its neighbor in each direction. */
+    private static final int[] NEIGHBOR_OFFSETS = new int[6];
+    static {
+        for (int i = 0; i < 6; i++) {
+            NEIGHBOR_OFFSETS[i] = pack(DX[i], DY[i]);
+        }
+    }
+
+    /**
+     * Where each corner (0 is TL going clockwise to 5, BL) of a hexagon at (x, y) is, as
+     * (x + CORNER_DX, 3y + CORNER_DY), so neighboring hexagons land on the same point. Corner d is
+     * between the neighbors in directions d - 1 and d.
+     */
+    private static final int[] CORNER_DX = { -1, 0, 1, 1, 0, -1 };
+    private static final int[] CORNER_DY = { -1, -2, -1, 1, 2, 1 };
+
+    // Prevent instantiation
+    private Hex() {}
+
+    public static int pack(int x, int y) {
+        if (x != (short) x || y != (short) y) {
+            throw new IllegalArgumentException("(" + x + "," + y + ") is out of range");
+        }
+        return (x << 16) + y;
+    }
+
+    public static int x(int hex) {
+        return (hex - (short) hex) >> 16;
+    }
+
+    public static int y(int hex) {
+        return (short) hex;
+    }
+
+    /** Returns the hexagon next to this one in the given direction (0-5). */
+    public static int neighbor(int hex, int direction) {
+        return hex + NEIGHBOR_OFFSETS[direction];
+    }
+
+    /** Returns the direction (0-5) to get from one hexagon to the other, or -1 if they don't touch. */
+    public static int directionTo(int from, int to) {
+        int diff = to - from;
+        for (int i = 0; i < 6; i++) {
+            if (NEIGHBOR_OFFSETS[i] == diff) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns corner (0-5) of hex as a point, the same one every hexagon sharing it gets. */
+    public static long corner(int hex, int corner) {
+        return point(x(hex) + CORNER_DX[corner], 3L * y(hex) + CORNER_DY[corner]);
+    }
+
+    /**
+     * Returns the point one edge away from point, in the direction of a hexagon's edge from corner
+     * edge to corner edge + 1. Only half of the six are corners of anything, the rest are
+     * somewhere in the middle of a hexagon.
+     */
+    public static long cornerNeighbor(long point, int edge) {
+        int next = (edge + 1) % 6;
+        return point((point >> 32) + CORNER_DX[next] - CORNER_DX[edge],
+                (int) point + CORNER_DY[next] - CORNER_DY[edge]);
+    }
+
+    private static long point(long x, long y) {
+        return (x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public static boolean isNeighbor(int hex1, int hex2) {
+        return directionTo(hex1, hex2) != -1;
+    }
+
+    public static Point toPoint(int hex) {
+        return new Point(x(hex), y(hex));
+    }
+
+    public static Point[] toPoints(int[] hexes) {
+        if (hexes == null) {
+            return null;
+        }
+
+        Point[] points = new Point[hexes.length];
+        for (int i = 0; i < hexes.length; i++) {
+            points[i] = toPoint(hexes[i]);
+        }
+        return points;
+    }
+
+    public static int[] fromPoints(Point[] points) {
+        if (points == null) {
+            return null;
+        }
+
+        int[] hexes = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            hexes[i] = pack(points[i].x, points[i].y);
+        }
+        return hexes;
+    }
+}
@@ -0,0 +1,65 @@
+package com.nut.bettersettlers.generator.data;
+
+/**
+ * Maps packed {@link Hex} coordinates to their index in a grid. Open addressing over the packed
+ * ints, so lookups don't box and don't scan the grid. If a coordinate shows up more than once the
+ * first index wins, same as List.indexOf.
+ */
+final class HexIndex {
+    private static final int NOT_FOUND = -1;
+
+    private final int[] keys;
+    private final int[] values;
+    private final int mask;
+
+    HexIndex(int[] hexes) {
+        int capacity = 4;
+        while (capacity < hexes.length * 2) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            values[i] = NOT_FOUND;
+        }
+
+        for (int i = 0; i < hexes.length; i++) {
+            int key = hexes[i];
+            int slot = slot(key);
+            while (values[slot] != NOT_FOUND && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == NOT_FOUND) {
+                keys[slot] = key;
+                values[slot] = i;
+            }
+        }
+    }
+
+    /** Returns the index of the hexagon or -1 if it isn't in the grid. */
+    int indexOf(int hex) {
+        int slot = slot(hex);
+        while (values[slot] != NOT_FOUND) {
+            if (keys[slot] == hex) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    boolean contains(int hex) {
+        return indexOf(hex) != NOT_FOUND;
+    }
+
+    private int slot(int key) {
+        // Murmur3 finalizer, so neighboring coordinates don't pile up in neighboring slots
+        key ^= key >>> 16;
+        key *= 0x85ebca6b;
+        key ^= key >>> 13;
+        key *= 0xc2b2ae35;
+        key ^= key >>> 16;
+        return key & mask;
+    }
+}
@@ -0,0 +1,43 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.util.Arrays;
+
+/** A growable list of primitive ints, so building up int[]s doesn't box. */
+final class IntList {
+    private int[] data;
+    private int size;
+
+    IntList() {
+        this(16);
+    }
+
+    IntList(int capacity) {
+        data = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = value;
+    }
+
+    int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return data[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
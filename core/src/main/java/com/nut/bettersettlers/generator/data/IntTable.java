@@ -0,0 +1,164 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.util.Arrays;
+
+/**
+ * A read-only int[][] laid out flat, the same way {@link CatanMapBinary} writes its tables: row
+ * i is values[offsets[i]..offsets[i + 1]). Walking a row touches one contiguous array instead of
+ * chasing a pointer to a separate array per row. Null rows read as empty, check {@link #isNull}
+ * to tell them apart.
+ */
+public final class IntTable {
+    private final int[] offsets;
+    private final int[] values;
+    // Null if no row is null
+    private final boolean[] nullRows;
+
+    IntTable(int[] offsets, int[] values, boolean[] nullRows) {
+        this.offsets = offsets;
+        this.values = values;
+        this.nullRows = nullRows;
+    }
+
+    /** Flattens rows, or returns null if rows is null. */
+    public static IntTable of(int[][] rows) {
+        if (rows == null) {
+            return null;
+        }
+
+        Builder builder = new Builder(rows.length);
+        for (int[] row : rows) {
+            if (row == null) {
+                builder.endNullRow();
+            } else {
+                for (int value : row) {
+                    builder.add(value);
+                }
+                builder.endRow();
+            }
+        }
+        return builder.build();
+    }
+
+    public int rows() {
+        return offsets.length - 1;
+    }
+
+    /** How many values there are across all the rows. */
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isNull(int row) {
+        return nullRows != null && nullRows[row];
+    }
+
+    public int rowLength(int row) {
+        return offsets[row + 1] - offsets[row];
+    }
+
+    public int get(int row, int index) {
+        return values[offsets[row] + index];
+    }
+
+    /** Where row starts in the values, so it can be walked as value(start(row))..value(end(row) - 1). */
+    public int start(int row) {
+        return offsets[row];
+    }
+
+    /** Where row ends in the values, exclusive. */
+    public int end(int row) {
+        return offsets[row + 1];
+    }
+
+    public int value(int index) {
+        return values[index];
+    }
+
+    /** Returns a copy of row, or null if it's a null row. */
+    public int[] toArray(int row) {
+        return isNull(row) ? null : Arrays.copyOfRange(values, offsets[row], offsets[row + 1]);
+    }
+
+    /** Returns a copy of the whole table as an int[][]. */
+    public int[][] toArrays() {
+        int[][] rows = new int[rows()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = toArray(i);
+        }
+        return rows;
+    }
+
+    /** Same as Arrays.deepToString on the int[][]. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < rows(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            if (isNull(i)) {
+                sb.append("null");
+                continue;
+            }
+            sb.append("[");
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                if (j > offsets[i]) {
+                    sb.append(", ");
+                }
+                sb.append(values[j]);
+            }
+            sb.append("]");
+        }
+        return sb.append("]").toString();
+    }
+
+    /** Builds a table a row at a time: add each of a row's values, then end the row. */
+    public static final class Builder {
+        private final IntList offsets;
+        private final IntList values;
+        private boolean[] nullRows;
+
+        public Builder() {
+            this(16);
+        }
+
+        public Builder(int rows) {
+            offsets = new IntList(rows + 1);
+            values = new IntList(rows * 3);
+            offsets.add(0);
+        }
+
+        public Builder add(int value) {
+            values.add(value);
+            return this;
+        }
+
+        public Builder endRow() {
+            offsets.add(values.size());
+            return this;
+        }
+
+        /** Ends the row, which must be empty, as a null row. */
+        public Builder endNullRow() {
+            int row = offsets.size() - 1;
+            if (values.size() != offsets.get(row)) {
+                throw new IllegalStateException("Null row " + row + " has values");
+            }
+            if (nullRows == null) {
+                nullRows = new boolean[Math.max(row + 1, 16)];
+            } else if (row >= nullRows.length) {
+                nullRows = Arrays.copyOf(nullRows, Math.max(row + 1, nullRows.length * 2));
+            }
+            nullRows[row] = true;
+            offsets.add(values.size());
+            return this;
+        }
+
+        public IntTable build() {
+            int rows = offsets.size() - 1;
+            return new IntTable(offsets.toArray(), values.toArray(),
+                    nullRows == null ? null : Arrays.copyOf(nullRows, rows));
+        }
+    }
+}
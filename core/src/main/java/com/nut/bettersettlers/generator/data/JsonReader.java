@@ -0,0 +1,351 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.json.JSONException;
+
+/**
+ * A pull parser for JSON, modeled on android.util.JsonReader (which doesn't exist on a plain
+ * JVM). Values are read straight off the stream into whatever the caller wants, so there is no
+ * intermediate copy of the document or DOM. Syntax errors are reported as JSONExceptions, same as
+ * org.json.
+ */
+final class JsonReader {
+    enum Token {
+        BEGIN_ARRAY, BEGIN_OBJECT, STRING, NUMBER, BOOLEAN, NULL
+    }
+
+    // Where we are in the document
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int ARRAY_VALUE = 4; // Comma consumed, value next
+    private static final int EMPTY_OBJECT = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+    private static final int DANGLING_NAME = 7; // Name consumed, colon next
+    private static final int OBJECT_VALUE = 8; // Colon consumed, value next
+
+    private final Reader in;
+    private final char[] buffer = new char[1024];
+    private int pos;
+    private int limit;
+    private int consumed; // Characters before buffer[0], for error messages
+
+    private int[] stack = new int[32];
+    private int stackSize;
+
+    private final StringBuilder scratch = new StringBuilder();
+
+    JsonReader(Reader in) {
+        this.in = in;
+        push(EMPTY_DOCUMENT);
+    }
+
+    void beginArray() throws IOException, JSONException {
+        beforeValue();
+        expect('[');
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException, JSONException {
+        int top = stack[stackSize - 1];
+        if (top != EMPTY_ARRAY && top != NONEMPTY_ARRAY) {
+            throw syntaxError("Not at the end of an array");
+        }
+        expect(']');
+        stackSize--;
+        afterValue();
+    }
+
+    void beginObject() throws IOException, JSONException {
+        beforeValue();
+        expect('{');
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException, JSONException {
+        int top = stack[stackSize - 1];
+        if (top != EMPTY_OBJECT && top != NONEMPTY_OBJECT) {
+            throw syntaxError("Not at the end of an object");
+        }
+        expect('}');
+        stackSize--;
+        afterValue();
+    }
+
+    /** Returns true if the current array or object has another element. */
+    boolean hasNext() throws IOException, JSONException {
+        switch (stack[stackSize - 1]) {
+        case EMPTY_ARRAY:
+            return peekChar() != ']';
+        case NONEMPTY_ARRAY:
+        case NONEMPTY_OBJECT:
+            return peekChar() == ',';
+        case EMPTY_OBJECT:
+            return peekChar() != '}';
+        default:
+            return true;
+        }
+    }
+
+    String nextName() throws IOException, JSONException {
+        int top = stack[stackSize - 1];
+        if (top == NONEMPTY_OBJECT) {
+            expect(',');
+        } else if (top != EMPTY_OBJECT) {
+            throw syntaxError("Expected a name");
+        }
+        expect('"');
+        String name = readQuoted();
+        stack[stackSize - 1] = DANGLING_NAME;
+        return name;
+    }
+
+    /** Returns the type of the next value without consuming it. */
+    Token peek() throws IOException, JSONException {
+        beforeValue();
+        char c = peekChar();
+        switch (c) {
+        case '[':
+            return Token.BEGIN_ARRAY;
+        case '{':
+            return Token.BEGIN_OBJECT;
+        case '"':
+            return Token.STRING;
+        case 't':
+        case 'f':
+            return Token.BOOLEAN;
+        case 'n':
+            return Token.NULL;
+        default:
+            return Token.NUMBER;
+        }
+    }
+
+    /** Returns the next string, or the literal text of the next number. */
+    String nextString() throws IOException, JSONException {
+        beforeValue();
+        String value;
+        if (peekChar() == '"') {
+            pos++;
+            value = readQuoted();
+        } else {
+            value = readLiteral();
+        }
+        afterValue();
+        return value;
+    }
+
+    int nextInt() throws IOException, JSONException {
+        beforeValue();
+        String literal;
+        if (peekChar() == '"') {
+            pos++;
+            literal = readQuoted();
+        } else {
+            literal = readLiteral();
+        }
+        afterValue();
+
+        try {
+            return Integer.parseInt(literal);
+        } catch (NumberFormatException e) {
+            // org.json's getInt() allows things like 2.0
+            try {
+                return (int) Double.parseDouble(literal);
+            } catch (NumberFormatException e2) {
+                throw syntaxError("Expected an int but was " + literal);
+            }
+        }
+    }
+
+    boolean nextBoolean() throws IOException, JSONException {
+        String literal = nextString();
+        if ("true".equalsIgnoreCase(literal)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(literal)) {
+            return false;
+        }
+        throw syntaxError("Expected a boolean but was " + literal);
+    }
+
+    /** Skips the next value, including everything inside it if it's an array or object. */
+    void skipValue() throws IOException, JSONException {
+        switch (peek()) {
+        case BEGIN_ARRAY:
+            beginArray();
+            while (hasNext()) {
+                skipValue();
+            }
+            endArray();
+            break;
+        case BEGIN_OBJECT:
+            beginObject();
+            while (hasNext()) {
+                nextName();
+                skipValue();
+            }
+            endObject();
+            break;
+        default:
+            nextString();
+            break;
+        }
+    }
+
+    private void push(int state) {
+        if (stackSize == stack.length) {
+            int[] newStack = new int[stackSize * 2];
+            System.arraycopy(stack, 0, newStack, 0, stackSize);
+            stack = newStack;
+        }
+        stack[stackSize++] = state;
+    }
+
+    /** Consumes whatever separator has to come before the next value. */
+    private void beforeValue() throws IOException, JSONException {
+        switch (stack[stackSize - 1]) {
+        case EMPTY_ARRAY:
+            stack[stackSize - 1] = ARRAY_VALUE;
+            break;
+        case NONEMPTY_ARRAY:
+            expect(',');
+            stack[stackSize - 1] = ARRAY_VALUE;
+            break;
+        case DANGLING_NAME:
+            expect(':');
+            stack[stackSize - 1] = OBJECT_VALUE;
+            break;
+        case EMPTY_DOCUMENT:
+            stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+            break;
+        case ARRAY_VALUE:
+        case OBJECT_VALUE:
+            break;
+        default:
+            throw syntaxError("Expected a name or the end of the object");
+        }
+    }
+
+    private void afterValue() {
+        int top = stack[stackSize - 1];
+        if (top == ARRAY_VALUE) {
+            stack[stackSize - 1] = NONEMPTY_ARRAY;
+        } else if (top == OBJECT_VALUE) {
+            stack[stackSize - 1] = NONEMPTY_OBJECT;
+        }
+    }
+
+    private void expect(char c) throws IOException, JSONException {
+        if (peekChar() != c) {
+            throw syntaxError("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    /** Returns the next non-whitespace character without consuming it. */
+    private char peekChar() throws IOException, JSONException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unexpected end of input");
+            }
+            char c = buffer[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    /** Reads the rest of a string whose opening quote has already been consumed. */
+    private String readQuoted() throws IOException, JSONException {
+        scratch.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return scratch.toString();
+            } else if (c == '\\') {
+                scratch.append(readEscape());
+            } else {
+                scratch.append(c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException, JSONException {
+        char c = nextRawChar();
+        switch (c) {
+        case 'b':
+            return '\b';
+        case 't':
+            return '\t';
+        case 'n':
+            return '\n';
+        case 'f':
+            return '\f';
+        case 'r':
+            return '\r';
+        case 'u':
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(nextRawChar(), 16);
+                if (digit == -1) {
+                    throw syntaxError("Bad \\u escape");
+                }
+                value = (value << 4) | digit;
+            }
+            return (char) value;
+        default:
+            // \" \\ \/ and anything else stand for themselves
+            return c;
+        }
+    }
+
+    private char nextRawChar() throws IOException, JSONException {
+        if (pos == limit && !fill()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return buffer[pos++];
+    }
+
+    /** Reads an unquoted number, true, false or null. */
+    private String readLiteral() throws IOException, JSONException {
+        peekChar();
+        scratch.setLength(0);
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c == ',' || c == ']' || c == '}' || c == ':'
+                    || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+            scratch.append(c);
+            pos++;
+        }
+        if (scratch.length() == 0) {
+            throw syntaxError("Expected a value");
+        }
+        return scratch.toString();
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at character " + (consumed + pos));
+    }
+}
@@ -0,0 +1,27 @@
+package com.nut.bettersettlers.generator.data;
+
+/**
+ * Logging hook for the data package. The Android wrapper plugs in android.util.Log, everything
+ * else gets {@link #SYSTEM}.
+ */
+public interface Logger {
+    void i(String tag, String msg);
+
+    void e(String tag, String msg, Throwable tr);
+
+    /** Logs to stdout/stderr. */
+    Logger SYSTEM = new Logger() {
+        @Override
+        public void i(String tag, String msg) {
+            System.out.println(tag + ": " + msg);
+        }
+
+        @Override
+        public void e(String tag, String msg, Throwable tr) {
+            System.err.println(tag + ": " + msg);
+            if (tr != null) {
+                tr.printStackTrace();
+            }
+        }
+    };
+}
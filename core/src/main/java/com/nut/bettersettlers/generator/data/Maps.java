@@ -0,0 +1,19 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class Maps {
+    private Maps() {}
+
+    /** Class name of each generated map to the name of its json file in res/raw (sans ".json"). */
+    public static final Map<String, String> MAPS = new HashMap<String, String>();
+    static {
+        MAPS.put("Standard", "standard");
+        MAPS.put("Large", "large");
+        MAPS.put("XLarge", "xlarge");
+
+        MAPS.put("HeadingForNewShores", "heading_for_new_shores");
+        MAPS.put("HeadingForNewShoresExp", "heading_for_new_shores_exp");
+    }
+}
@@ -0,0 +1,430 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.util.Arrays;
+
+/**
+ * Places availableProbabilities on a board whose resources have already been dealt, so that the
+ * chosen rules hold between landNeighbors and every tile stays within its
+ * landProbabilityWhitelists entry. Fixed landGridProbabilities are kept and deserts get 0.
+ *
+ * Rejection sampling (deal, check, deal again) falls over on the bigger maps where most deals
+ * break the rules, so this backtracks instead: each tile's domain is a long bitmask of the
+ * numbers it can still take, every placement is forward checked against the neighbors, and the
+ * tile with the fewest options left goes next. Values are tried in a seeded random order, so the
+ * same seed always gives the same board. A search that gets stuck restarts with a growing cutoff,
+ * and the whole solve gives up after a fixed number of placements rather than running away.
+ *
+ * The pool may have more numbers than there are open tiles (land_water maps always do), the
+ * spare ones are just left out. Open tiles are kept bucketed by domain size and each number's
+ * room (how many open tiles can still take it) is kept as a count, both updated as tiles are
+ * placed, so a placement only touches the tile, its neighbors and one counter per number. A
+ * solve takes time linear in the size of the map plus maxPlacements.
+ *
+ * Doesn't allocate per solve. Not safe to share between threads, use one per thread.
+ */
+public final class ProbabilitySolver {
+    /** No two neighboring tiles both have a 6 or an 8. */
+    public static final int NO_ADJACENT_6_8 = 1;
+
+    /** No two neighboring tiles have the same number. */
+    public static final int NO_ADJACENT_SAME = 1 << 1;
+
+    public static final int DEFAULT_RULES = NO_ADJACENT_6_8 | NO_ADJACENT_SAME;
+
+    public static final int DEFAULT_MAX_PLACEMENTS = 100000;
+
+    private static final int NONE = CatanBoard.NONE;
+    private static final int NO_PROBABILITY = Integer.MAX_VALUE;
+    private static final int DESERT = Resource.DESERT.ordinal();
+    private static final int MAX_VALUE = 63;
+    // Domains never hold 0 (only deserts get it), so this bucket is free for assigned tiles
+    private static final int ASSIGNED = MAX_VALUE + 1;
+    private static final long RED = (1L << 6) | (1L << 8);
+
+    // First restart comes after this many placements per open tile
+    private static final int RESTART_FACTOR = 4;
+
+    private static final int SOLVED = 0;
+    private static final int UNSOLVABLE = 1;
+    private static final int CUTOFF = 2;
+
+    private final int rules;
+    private final int maxPlacements;
+    private final SplitMix64 rand = new SplitMix64(0);
+
+    private final IntTable neighbors;
+    private final int[] fixedProbabilities;
+    private final int[] poolCounts;
+    private final long[] whitelists;
+
+    // Search state, reused by every solve
+    private final int[] counts = new int[MAX_VALUE + 1];
+    // How many unassigned open tiles have each value in their domain
+    private final int[] room = new int[MAX_VALUE + 1];
+    private long available;
+    private int copiesLeft;
+    private int openLeft;
+    private final long[] domains;
+    private final boolean[] assigned;
+    private final int[] open;
+    private int openCount;
+    // Open tiles by domain size: bucket k is byDomainSize[bucketStarts[k]..bucketStarts[k + 1]),
+    // and tile t sits at positions[t] in bucket buckets[t]
+    private final int[] byDomainSize;
+    private final int[] bucketStarts = new int[ASSIGNED + 2];
+    private final int[] buckets;
+    private final int[] positions;
+    private final int[] stackTile;
+    private final int[] stackValue;
+    private final long[] stackRemaining;
+    private final int[] stackTrail;
+    private final int[] trailTile;
+    private final long[] trailDomain;
+    private int trailSize;
+    private int placements;
+
+    public ProbabilitySolver(CatanMap map) {
+        this(map, DEFAULT_RULES, DEFAULT_MAX_PLACEMENTS);
+    }
+
+    public ProbabilitySolver(CatanMap map, int rules, int maxPlacements) {
+        this.rules = rules;
+        this.maxPlacements = maxPlacements;
+
+        int lands = map.landHexes.length;
+        neighbors = map.landNeighbors;
+
+        poolCounts = new int[MAX_VALUE + 1];
+        for (int probability : map.availableProbabilities) {
+            poolCounts[checkValue(probability)]++;
+        }
+        fixedProbabilities = new int[lands];
+        whitelists = new long[lands];
+        for (int i = 0; i < lands; i++) {
+            int probability = map.landGridProbabilities[i];
+            fixedProbabilities[i] = probability == NO_PROBABILITY ? NONE : checkValue(probability);
+
+            whitelists[i] = -1L;
+            int id = map.landGridWhitelistIds[i];
+            if (id != CatanMap.NO_WHITELIST && map.whitelistLimitsProbabilities[id]) {
+                whitelists[i] = map.probabilityWhitelistMasks[id] & 0xFFFFL;
+            }
+        }
+
+        domains = new long[lands];
+        assigned = new boolean[lands];
+        open = new int[lands];
+        byDomainSize = new int[lands];
+        buckets = new int[lands];
+        positions = new int[lands];
+        stackTile = new int[lands];
+        stackValue = new int[lands];
+        stackRemaining = new long[lands];
+        stackTrail = new int[lands];
+        trailTile = new int[lands * 6];
+        trailDomain = new long[lands * 6];
+    }
+
+    private static int checkValue(int probability) {
+        if (probability < 0 || probability > MAX_VALUE) {
+            throw new IllegalArgumentException("Probability out of range: " + probability);
+        }
+        return probability;
+    }
+
+    /** Returns how many placements the last solve took, backtracked and restarted ones included. */
+    public int getPlacements() {
+        return placements;
+    }
+
+    /**
+     * Fills in board.landProbabilities for the resources already on board. Returns false, leaving
+     * the open tiles as NONE, if there's no way to do it or the search ran out of placements.
+     */
+    public boolean solve(long seed, CatanBoard board) {
+        rand.setSeed(seed);
+        placements = 0;
+        trailSize = 0;
+
+        int[] out = board.landProbabilities;
+        System.arraycopy(poolCounts, 0, counts, 0, counts.length);
+        openCount = 0;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = fixedProbabilities[i];
+            if (out[i] == NONE && board.landResources[i] == DESERT) {
+                out[i] = 0;
+            }
+            if (out[i] == NONE) {
+                open[openCount++] = i;
+            } else if (counts[out[i]] > 0) {
+                counts[out[i]]--;
+            }
+        }
+
+        // Only deserts get 0
+        available = 0;
+        copiesLeft = 0;
+        for (int value = 1; value <= MAX_VALUE; value++) {
+            if (counts[value] > 0) {
+                available |= 1L << value;
+                copiesLeft += counts[value];
+            }
+        }
+        openLeft = openCount;
+        if (copiesLeft < openCount) {
+            return false;
+        }
+
+        for (int i = 0; i < out.length; i++) {
+            assigned[i] = out[i] != NONE;
+            domains[i] = whitelists[i] & available;
+        }
+        for (int i = 0; i < out.length; i++) {
+            if (assigned[i]) {
+                long forbidden = forbidden(out[i]);
+                for (int n = neighbors.start(i); n < neighbors.end(i); n++) {
+                    domains[neighbors.value(n)] &= ~forbidden;
+                }
+            }
+        }
+        fillBuckets();
+
+        // Backtracking times are heavy tailed, a stuck search is better off starting over with
+        // different choices than digging deeper, so restart with a growing cutoff until the budget
+        // runs out
+        int cutoff = Math.max(openCount, 1) * RESTART_FACTOR;
+        while (true) {
+            int result = search(out, Math.min(cutoff, maxPlacements - placements));
+            if (result != CUTOFF) {
+                if (result == UNSOLVABLE) {
+                    clear(out);
+                }
+                return result == SOLVED;
+            }
+            if (placements >= maxPlacements) {
+                clear(out);
+                return false;
+            }
+            cutoff *= 2;
+        }
+    }
+
+    /** Runs one search of at most limit placements, leaving nothing placed unless it's SOLVED. */
+    private int search(int[] out, int limit) {
+        int depth = 0;
+        int start = placements;
+        boolean descend = true;
+        while (true) {
+            if (descend) {
+                if (depth == openCount) {
+                    return SOLVED;
+                }
+                int tile = mostConstrained();
+                if (tile == NONE) {
+                    descend = false;
+                } else {
+                    stackTile[depth] = tile;
+                    stackRemaining[depth] = domains[tile] & available;
+                    stackTrail[depth] = trailSize;
+                }
+            }
+
+            if (!descend) {
+                // Nothing left to try at this depth, undo the one above
+                depth--;
+                if (depth < 0) {
+                    return UNSOLVABLE;
+                }
+                unassign(out, depth);
+            }
+
+            descend = false;
+            while (stackRemaining[depth] != 0) {
+                if (placements - start >= limit) {
+                    while (depth > 0) {
+                        unassign(out, --depth);
+                    }
+                    return CUTOFF;
+                }
+                placements++;
+                int value = pickValue(stackRemaining[depth]);
+                stackRemaining[depth] &= ~(1L << value);
+                if (assign(out, depth, value)) {
+                    descend = true;
+                    depth++;
+                    break;
+                }
+                unassign(out, depth);
+            }
+        }
+    }
+
+    /** Counts each value's room and sorts the open tiles into buckets by domain size. */
+    private void fillBuckets() {
+        Arrays.fill(room, 0);
+        Arrays.fill(bucketStarts, 0);
+        for (int i = 0; i < openCount; i++) {
+            long domain = domains[open[i]];
+            for (long values = domain; values != 0; values &= values - 1) {
+                room[Long.numberOfTrailingZeros(values)]++;
+            }
+            bucketStarts[Long.bitCount(domain) + 1]++;
+        }
+        for (int k = 1; k < bucketStarts.length; k++) {
+            bucketStarts[k] += bucketStarts[k - 1];
+        }
+        // Fill each bucket from its start, which leaves each start where the next bucket's was
+        for (int i = 0; i < openCount; i++) {
+            int tile = open[i];
+            int bucket = Long.bitCount(domains[tile]);
+            buckets[tile] = bucket;
+            positions[tile] = bucketStarts[bucket];
+            byDomainSize[bucketStarts[bucket]++] = tile;
+        }
+        for (int k = bucketStarts.length - 1; k > 0; k--) {
+            bucketStarts[k] = bucketStarts[k - 1];
+        }
+        bucketStarts[0] = 0;
+    }
+
+    /** Moves tile into bucket, one bucket at a time by swapping it across the boundary. */
+    private void moveToBucket(int tile, int bucket) {
+        while (buckets[tile] < bucket) {
+            int next = buckets[tile] + 1;
+            swapPositions(tile, --bucketStarts[next]);
+            buckets[tile] = next;
+        }
+        while (buckets[tile] > bucket) {
+            int current = buckets[tile];
+            swapPositions(tile, bucketStarts[current]++);
+            buckets[tile] = current - 1;
+        }
+    }
+
+    private void swapPositions(int tile, int position) {
+        int other = byDomainSize[position];
+        byDomainSize[positions[tile]] = other;
+        positions[other] = positions[tile];
+        byDomainSize[position] = tile;
+        positions[tile] = position;
+    }
+
+    /**
+     * Returns the open tile with the fewest values left, or NONE if one of them has none. Ties are
+     * broken at random so restarts don't retrace the same steps.
+     */
+    private int mostConstrained() {
+        if (bucketStarts[1] > 0) {
+            return NONE;
+        }
+        for (int k = 1; k < ASSIGNED; k++) {
+            int size = bucketStarts[k + 1] - bucketStarts[k];
+            if (size > 0) {
+                return byDomainSize[bucketStarts[k] + rand.nextInt(size)];
+            }
+        }
+        return NONE;
+    }
+
+    /** Picks one of the set bits of values at random. */
+    private int pickValue(long values) {
+        for (int skip = rand.nextInt(Long.bitCount(values)); skip > 0; skip--) {
+            values &= values - 1;
+        }
+        return Long.numberOfTrailingZeros(values);
+    }
+
+    /** Places value on the tile at depth and forward checks it. Returns false on a dead end. */
+    private boolean assign(int[] out, int depth, int value) {
+        int tile = stackTile[depth];
+        stackValue[depth] = value;
+        out[tile] = value;
+        assigned[tile] = true;
+        addRoom(domains[tile], -1);
+        moveToBucket(tile, ASSIGNED);
+        openLeft--;
+        copiesLeft--;
+        if (--counts[value] == 0) {
+            available &= ~(1L << value);
+        }
+
+        boolean ok = true;
+        long forbidden = forbidden(value);
+        for (int n = neighbors.start(tile); n < neighbors.end(tile); n++) {
+            int neighbor = neighbors.value(n);
+            if (!assigned[neighbor] && (domains[neighbor] & forbidden) != 0) {
+                trailTile[trailSize] = neighbor;
+                trailDomain[trailSize] = domains[neighbor];
+                trailSize++;
+                addRoom(domains[neighbor] & forbidden, -1);
+                domains[neighbor] &= ~forbidden;
+                moveToBucket(neighbor, Long.bitCount(domains[neighbor]));
+                if ((domains[neighbor] & available) == 0) {
+                    ok = false;
+                }
+            }
+        }
+
+        return ok && enoughRoom();
+    }
+
+    /**
+     * Every open tile still needs a value, but the values left over once they all have one
+     * (the slack) don't need a tile. A value can't go on more open tiles than can still take
+     * it, so the copies that won't fit have to come out of the slack.
+     */
+    private boolean enoughRoom() {
+        int slack = copiesLeft - openLeft;
+        for (long values = available; values != 0; values &= values - 1) {
+            int value = Long.numberOfTrailingZeros(values);
+            if (counts[value] > room[value]) {
+                slack -= counts[value] - room[value];
+            }
+        }
+        return slack >= 0;
+    }
+
+    private void addRoom(long values, int delta) {
+        for (; values != 0; values &= values - 1) {
+            room[Long.numberOfTrailingZeros(values)] += delta;
+        }
+    }
+
+    private void unassign(int[] out, int depth) {
+        int tile = stackTile[depth];
+        int value = stackValue[depth];
+        while (trailSize > stackTrail[depth]) {
+            trailSize--;
+            int neighbor = trailTile[trailSize];
+            addRoom(trailDomain[trailSize] & ~domains[neighbor], 1);
+            domains[neighbor] = trailDomain[trailSize];
+            moveToBucket(neighbor, Long.bitCount(domains[neighbor]));
+        }
+        out[tile] = NONE;
+        assigned[tile] = false;
+        addRoom(domains[tile], 1);
+        moveToBucket(tile, Long.bitCount(domains[tile]));
+        openLeft++;
+        copiesLeft++;
+        if (counts[value]++ == 0) {
+            available |= 1L << value;
+        }
+    }
+
+    private long forbidden(int value) {
+        long forbidden = 0;
+        if ((rules & NO_ADJACENT_SAME) != 0) {
+            forbidden |= 1L << value;
+        }
+        if ((rules & NO_ADJACENT_6_8) != 0 && (RED & (1L << value)) != 0) {
+            forbidden |= RED;
+        }
+        return forbidden;
+    }
+
+    private void clear(int[] out) {
+        for (int i = 0; i < openCount; i++) {
+            out[open[i]] = NONE;
+        }
+    }
+}
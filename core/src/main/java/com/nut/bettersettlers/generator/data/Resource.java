@@ -3,10 +3,7 @@ package com.nut.bettersettlers.generator.data;
 import java.util.HashMap;
 import java.util.Map;
 
-import android.os.Parcel;
-import android.os.Parcelable;
-
-public enum Resource implements Parcelable {
+public enum Resource {
     DESERT(0xFFf0dc82, NumberOfResource.DESERT, "desert"),
     WHEAT(0xFFfad111, NumberOfResource.HIGH, "wheat"),
     CLAY(0xFFb22222, NumberOfResource.LOW, "clay"),
@@ -36,26 +33,6 @@ public enum Resource implements Parcelable {
         this.jsonKey = jsonKey;
     }
 
-    public static final Parcelable.Creator<Resource> CREATOR = new Parcelable.Creator<Resource>() {
-        public Resource createFromParcel(Parcel in) {
-            return Resource.values()[in.readInt()];
-        }
-
-        public Resource[] newArray(int size) {
-            return new Resource[size];
-        }
-    };
-
-    @Override
-    public int describeContents() {
-        return 0;
-    }
-
-    @Override
-    public void writeToParcel(Parcel out, int flags) {
-        out.writeInt(ordinal());
-    }
-
     @Override
     public String toString() {
         return jsonKey;
@@ -0,0 +1,60 @@
+package com.nut.bettersettlers.generator.data;
+
+/**
+ * A small seeded random number generator (Steele, Lea and Flood's SplitMix64). Unlike
+ * java.util.Random it has no atomics and can be reseeded in place, so dealing boards from it
+ * doesn't allocate or contend. Not safe to share between threads.
+ */
+public final class SplitMix64 {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    public SplitMix64(long seed) {
+        this.state = seed;
+    }
+
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Returns the seed for the index-th of a run of items seeded with seed. Each item's seed only
+     * depends on its index, so a run split across threads gets the same seeds as a serial one.
+     */
+    public static long seedAt(long seed, long index) {
+        return mix(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Returns a uniformly distributed int in [0, bound). */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        int r = (int) (nextLong() >>> 33);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            // Power of two, the high bits are good enough
+            return (int) ((bound * (long) r) >>> 31);
+        }
+        // Reject the top of the range so every value is equally likely
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33)) {
+        }
+        return r;
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+}
@@ -0,0 +1,117 @@
+package com.nut.bettersettlers.generator.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class BoardScorerTest {
+    /**
+     * Three land tiles around one corner: 0 and 1 side by side with 2 below them. That makes one
+     * intersection of all three, next to one intersection of each pair.
+     */
+    private static final String TRIANGLE = "{\"name\": \"triangle\", \"title\": \"Triangle\","
+            + " \"land\": [{\"x\": 4, \"y\": 4}, {\"x\": 6, \"y\": 4}, {\"x\": 5, \"y\": 5}],"
+            + " \"water\": [{\"x\": 3, \"y\": 3}, {\"x\": 5, \"y\": 3}, {\"x\": 7, \"y\": 3}, {\"x\": 8, \"y\": 4},"
+            + " {\"x\": 7, \"y\": 5}, {\"x\": 6, \"y\": 6}, {\"x\": 4, \"y\": 6}, {\"x\": 3, \"y\": 5}, {\"x\": 2, \"y\": 4}],"
+            + " \"resources\": [\"wood\", \"wood\", \"sheep\"], \"probabilities\": [6, 8, 5], \"harbors\": [\"wood\"]}";
+
+    @Test
+    public void scoresHandMadeBoard() throws IOException {
+        CatanMap map = CatanMapGenerator.generateFromJson(new ByteArrayInputStream(TRIANGLE.getBytes("UTF-8")), 0L);
+        assertEquals(4, map.landIntersections.length);
+        CatanBoard board = new CatanBoard(map);
+        board.landResources[0] = Resource.WOOD.ordinal();
+        board.landResources[1] = Resource.WOOD.ordinal();
+        board.landResources[2] = Resource.SHEEP.ordinal();
+        board.landProbabilities[0] = 6;
+        board.landProbabilities[1] = 8;
+        board.landProbabilities[2] = 5;
+
+        BoardScorer scorer = new BoardScorer(map);
+        scorer.score(board);
+
+        // 5 + 5 + 4 pips where all three meet, and each pair's share on the coast
+        int[] expected = new int[map.landIntersections.length];
+        for (int i = 0; i < expected.length; i++) {
+            for (int tile : map.landIntersections[i]) {
+                expected[i] += new int[] { 5, 5, 4 }[tile];
+            }
+        }
+        assertArrayEquals(new int[] { 9, 9, 10, 14 }, sorted(expected));
+        assertArrayEquals(expected, scorer.getIntersectionPips());
+
+        assertEquals(10, scorer.getResourcePips()[Resource.WOOD.ordinal()]);
+        assertEquals(4, scorer.getResourcePips()[Resource.SHEEP.ordinal()]);
+        assertEquals(10 / 14f, scorer.getResourceShare(Resource.WOOD), 1e-6);
+
+        int[] metrics = scorer.getMetrics();
+        assertEquals(14, metrics[BoardScorer.MAX_INTERSECTION_PIPS]);
+        assertEquals((10 - 4) * 1000 / 14, metrics[BoardScorer.RESOURCE_SPREAD]);
+        // Tiles 0 and 1 are both wood
+        assertEquals(1, metrics[BoardScorer.SAME_RESOURCE_NEIGHBORS]);
+
+        // Every other spot is one edge from the best one, so it's the only opening
+        assertEquals(1, scorer.getBestSpotCount());
+        assertEquals(14, scorer.getIntersectionPips()[scorer.getBestSpots()[0]]);
+        assertEquals(0, metrics[BoardScorer.OPENING_SPREAD]);
+    }
+
+    @Test
+    public void bestSpotsKeepToDistanceRule() throws IOException {
+        InputStream is = BoardScorerTest.class.getResourceAsStream("/raw/large.json");
+        CatanMap map;
+        try {
+            map = CatanMapGenerator.generateFromJson(is, 0L);
+        } finally {
+            is.close();
+        }
+        CatanBoardGenerator generator = new CatanBoardGenerator(map);
+        ProbabilitySolver solver = new ProbabilitySolver(map);
+        BoardScorer scorer = new BoardScorer(map);
+        CatanBoard board = generator.newBoard();
+
+        for (int seed = 0; seed < 200; seed++) {
+            generator.generate(seed, board);
+            assertTrue(solver.solve(seed, board));
+            scorer.score(board);
+            assertEquals(BoardScorer.DEFAULT_OPENINGS, scorer.getBestSpotCount());
+
+            Set<Long> taken = new HashSet<Long>();
+            int[] pips = scorer.getIntersectionPips();
+            for (int i = 0; i < scorer.getBestSpotCount(); i++) {
+                int spot = scorer.getBestSpots()[i];
+                if (i > 0) {
+                    assertTrue("Seed " + seed, pips[spot] <= pips[scorer.getBestSpots()[i - 1]]);
+                }
+                long point = corner(map, spot);
+                for (int edge = 0; edge < 6; edge++) {
+                    assertFalse("Seed " + seed + " spot " + spot, taken.contains(Hex.cornerNeighbor(point, edge)));
+                }
+                taken.add(point);
+            }
+            assertEquals(pips[scorer.getBestSpots()[0]] - pips[scorer.getBestSpots()[BoardScorer.DEFAULT_OPENINGS - 1]],
+                    scorer.getMetrics()[BoardScorer.OPENING_SPREAD]);
+        }
+    }
+
+    private static long corner(CatanMap map, int intersection) {
+        int[] placement = map.placementIndexes[intersection];
+        return Hex.corner(map.landHexes[placement[0]], placement[1]);
+    }
+
+    private static int[] sorted(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
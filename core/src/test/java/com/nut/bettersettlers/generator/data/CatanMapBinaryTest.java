@@ -0,0 +1,104 @@
+package com.nut.bettersettlers.generator.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class CatanMapBinaryTest {
+    @Test
+    public void roundTripsShippedMaps() throws Exception {
+        for (String rawName : Maps.MAPS.values()) {
+            CatanMap map = map(rawName);
+            assertSameMap(map, CatanMapBinary.read(new ByteArrayInputStream(write(map))));
+        }
+    }
+
+    @Test
+    public void roundTripsLandWater() throws Exception {
+        CatanMap map = map("heading_for_new_shores");
+        assertEquals(0, map.landWater);
+        // Same as the shipped map, except some land became water
+        String json = new String(rawBytes("heading_for_new_shores"), "UTF-8").replaceFirst("\\{", "{\"land_water\": 3, ");
+        map = CatanMapGenerator.generateFromJson(new ByteArrayInputStream(json.getBytes("UTF-8")), 99L);
+        assertEquals(3, map.landWater);
+        assertSameMap(map, CatanMapBinary.read(new ByteArrayInputStream(write(map))));
+    }
+
+    @Test
+    public void rejectsBadMagic() throws IOException {
+        byte[] bytes = write(map("standard"));
+        bytes[0] ^= 1;
+        assertRejected(bytes, "Not a compiled map");
+    }
+
+    @Test
+    public void rejectsBadVersion() throws IOException {
+        byte[] bytes = write(map("standard"));
+        bytes[7] = (byte) (CatanMapBinary.VERSION + 1);
+        assertRejected(bytes, "Unsupported compiled map version " + (CatanMapBinary.VERSION + 1));
+    }
+
+    private static void assertRejected(byte[] bytes, String message) {
+        try {
+            CatanMapBinary.read(new ByteArrayInputStream(bytes));
+            fail("Read a broken map");
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    /** Every public field of actual matches expected's, looking inside arrays and tables. */
+    static void assertSameMap(CatanMap expected, CatanMap actual) throws IllegalAccessException {
+        int checked = 0;
+        for (Field field : CatanMap.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Object e = field.get(expected);
+            Object a = field.get(actual);
+            if (e instanceof IntTable) {
+                e = ((IntTable) e).toArrays();
+                a = a instanceof IntTable ? ((IntTable) a).toArrays() : a;
+            }
+            assertTrue(expected.name + "." + field.getName(),
+                    Arrays.deepEquals(new Object[] { e }, new Object[] { a }));
+            checked++;
+        }
+        assertTrue(checked > 30);
+    }
+
+    static byte[] write(CatanMap map) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CatanMapBinary.write(map, bytes);
+        return bytes.toByteArray();
+    }
+
+    static CatanMap map(String rawName) throws IOException {
+        return CatanMapGenerator.generateFromJson(new ByteArrayInputStream(rawBytes(rawName)), 0L);
+    }
+
+    private static byte[] rawBytes(String rawName) throws IOException {
+        InputStream is = CatanMapBinaryTest.class.getResourceAsStream("/raw/" + rawName + ".json");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.nut.bettersettlers.generator.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CatanMapBundleTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void getMatchesBinary() throws Exception {
+        Map<String, CatanMap> maps = shippedMaps();
+        File file = folder.newFile(CatanMapBundle.FILE_NAME);
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            CatanMapBundle.write(maps, out);
+        } finally {
+            out.close();
+        }
+
+        CatanMapBundle bundle = CatanMapBundle.open(file);
+        assertEquals(maps.keySet(), bundle.names());
+        for (Map.Entry<String, CatanMap> entry : maps.entrySet()) {
+            CatanMap binary = CatanMapBinary.read(new ByteArrayInputStream(CatanMapBinaryTest.write(entry.getValue())));
+            CatanMapBinaryTest.assertSameMap(binary, bundle.get(entry.getKey()));
+            CatanMapBinaryTest.assertSameMap(entry.getValue(), bundle.get(entry.getKey()));
+        }
+        assertNull(bundle.get("NoSuchMap"));
+    }
+
+    @Test
+    public void tablesMatchMap() throws IOException {
+        Map<String, CatanMap> maps = shippedMaps();
+        CatanMapBundle bundle = CatanMapBundle.open(ByteBuffer.wrap(write(maps)));
+        for (Map.Entry<String, CatanMap> entry : maps.entrySet()) {
+            CatanMap map = entry.getValue();
+            for (CatanMapBinary.Table table : CatanMapBinary.Table.values()) {
+                assertTableEquals(entry.getKey() + " " + table, rows(map, table), bundle.table(entry.getKey(), table));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsBadMagic() throws IOException {
+        byte[] bytes = write(shippedMaps());
+        bytes[0] ^= 1;
+        assertRejected(bytes, "Not a map bundle");
+    }
+
+    @Test
+    public void rejectsBadVersion() throws IOException {
+        byte[] bytes = write(shippedMaps());
+        bytes[7] = (byte) (CatanMapBundle.VERSION + 1);
+        assertRejected(bytes, "Unsupported map bundle version " + (CatanMapBundle.VERSION + 1));
+    }
+
+    private static void assertRejected(byte[] bytes, String message) {
+        try {
+            CatanMapBundle.open(ByteBuffer.wrap(bytes));
+            fail("Opened a broken bundle");
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static void assertTableEquals(String message, int[][] expected, CatanMapBundle.Table actual) {
+        assertEquals(message, expected.length, actual.rows());
+        for (int row = 0; row < expected.length; row++) {
+            assertEquals(message + " row " + row, expected[row] == null, actual.isNull(row));
+            int length = expected[row] == null ? 0 : expected[row].length;
+            assertEquals(message + " row " + row, length, actual.rowLength(row));
+            for (int i = 0; i < length; i++) {
+                assertEquals(message + " row " + row, expected[row][i], actual.get(row, i));
+            }
+        }
+    }
+
+    private static int[][] rows(CatanMap map, CatanMapBinary.Table table) {
+        switch (table) {
+            case HARBOR_LINES:
+                return map.harborLines.toArrays();
+            case LAND_NEIGHBORS:
+                return map.landNeighbors.toArrays();
+            case WATER_NEIGHBORS:
+                return map.waterNeighbors.toArrays();
+            case WATER_WATER_NEIGHBORS:
+                return map.waterWaterNeighbors.toArrays();
+            case LAND_INTERSECTIONS:
+                return map.landIntersections;
+            case LAND_INTERSECTION_INDEXES:
+                return map.landIntersectionIndexes.toArrays();
+            case PLACEMENT_INDEXES:
+                return map.placementIndexes;
+            default:
+                throw new AssertionError(table);
+        }
+    }
+
+    private static byte[] write(Map<String, CatanMap> maps) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CatanMapBundle.write(maps, bytes);
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, CatanMap> shippedMaps() throws IOException {
+        Map<String, CatanMap> maps = new LinkedHashMap<String, CatanMap>();
+        for (Map.Entry<String, String> entry : Maps.MAPS.entrySet()) {
+            maps.put(entry.getKey(), CatanMapBinaryTest.map(entry.getValue()));
+        }
+        return maps;
+    }
+}
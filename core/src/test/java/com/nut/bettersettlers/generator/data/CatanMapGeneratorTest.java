@@ -0,0 +1,168 @@
+package com.nut.bettersettlers.generator.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+/** Checks the streaming parse against what org.json's DOM makes of the same json. */
+public class CatanMapGeneratorTest {
+    @Test
+    public void streamedMatchesDomOnShippedMaps() throws IOException {
+        for (String rawName : Maps.MAPS.values()) {
+            assertMatchesDom(raw(rawName));
+        }
+    }
+
+    @Test
+    public void readsStringEscapes() throws IOException {
+        JSONObject json = new JSONObject(raw("heading_for_new_shores"));
+        // Every escape JSON has, plus a whitelist name that only matches once unescaped
+        String source = json.toString()
+                .replace("\"name\":\"heading_for_new_shores\"",
+                        "\"name\":\"q\\\"b\\\\s\\/f\\b\\f\\n\\r\\t\\u00e9\\u2603\"")
+                .replace("\"key\":\"islands\"", "\"key\":\"isl\\u0061nds\"");
+        assertEquals("q\"b\\s/f\b\f\n\r\t\u00e9\u2603", new JSONObject(source).getString("name"));
+
+        CatanMap.Builder builder = assertMatchesDom(source);
+        assertEquals("q\"b\\s/f\b\f\n\r\t\u00e9\u2603", builder.getName());
+        assertEquals(Arrays.asList("islands"), new ArrayList<String>(builder.getLandResourceWhitelists().keySet()));
+    }
+
+    @Test
+    public void keepsWhitelistMultisets() throws IOException {
+        JSONObject json = new JSONObject(raw("heading_for_new_shores"));
+        JSONObject probabilities = new JSONObject();
+        // The type comes after the values here
+        probabilities.put("key", "islands");
+        probabilities.put("value", new JSONArray(Arrays.asList("6", "6", "8", "2", "8")));
+        probabilities.put("type", "probability");
+        json.getJSONArray("land_whitelist").put(probabilities);
+
+        CatanMap.Builder builder = assertMatchesDom(json.toString());
+        assertEquals(Arrays.asList(Resource.GOLD, Resource.GOLD, Resource.SHEEP, Resource.ROCK, Resource.ROCK,
+                Resource.WHEAT, Resource.WOOD, Resource.CLAY), builder.getLandResourceWhitelists().get("islands"));
+        assertEquals(Arrays.asList(6, 6, 8, 2, 8), builder.getLandProbabilityWhitelists().get("islands"));
+    }
+
+    /** Parses source with the streaming reader and checks every field against the DOM. */
+    private static CatanMap.Builder assertMatchesDom(String source) throws IOException {
+        CatanMap.Builder builder = CatanMap.newBuilder();
+        CatanMapGenerator.setFieldsFromJson(builder, new StringReader(source), 0L, null, null);
+        JSONObject json = new JSONObject(source);
+        String name = json.getString("name");
+
+        assertEquals(name, json.getString("title"), builder.getTitle());
+        JSONArray land = json.getJSONArray("land");
+        int lands = land.length();
+        int[] hexes = new int[lands];
+        int[] probabilities = new int[lands];
+        Resource[] resources = new Resource[lands];
+        String[] whitelists = new String[lands];
+        byte[] blacklists = new byte[lands];
+        for (int i = 0; i < lands; i++) {
+            JSONObject tile = land.getJSONObject(i);
+            hexes[i] = Hex.pack(tile.getInt("x"), tile.getInt("y"));
+            probabilities[i] = tile.has("probability") ? tile.getInt("probability") : Integer.MAX_VALUE;
+            resources[i] = tile.has("resource") ? Resource.getResourceByJson(tile.getString("resource")) : null;
+            whitelists[i] = tile.has("whitelist") ? tile.getString("whitelist") : null;
+            JSONArray blacklist = tile.optJSONArray("placement_blacklist");
+            for (int d = 0; blacklist != null && d < blacklist.length(); d++) {
+                blacklists[i] |= 1 << blacklist.getInt(d);
+            }
+        }
+        assertArrayEquals(name, hexes, builder.getLandHexes());
+        assertArrayEquals(name, probabilities, builder.getLandGridProbabilities());
+        assertArrayEquals(name, resources, builder.getLandGridResources());
+        assertArrayEquals(name, whitelists, builder.getLandGridWhitelists());
+        assertArrayEquals(name, blacklists, builder.getPlacementBlacklists());
+
+        assertArrayEquals(name, hexArray(json.getJSONArray("water")), builder.getWaterHexes());
+        assertArrayEquals(name, hexArray(json.optJSONArray("unknown_landwater")), builder.getUnknownHexes());
+        assertArrayEquals(name, resourceArray(json.getJSONArray("resources")), builder.getAvailableResources());
+        assertArrayEquals(name, resourceArray(json.getJSONArray("harbors")), builder.getAvailableHarbors());
+        assertArrayEquals(name, resourceArray(json.optJSONArray("unknown_resources")),
+                builder.getAvailableUnknownResources());
+        assertArrayEquals(name, intArray(json.getJSONArray("probabilities")), builder.getAvailableProbabilities());
+        assertArrayEquals(name, intArray(json.optJSONArray("unknown_probabilities")),
+                builder.getAvailableUnknownProbabilities());
+        assertArrayEquals(name, json.has("ordered_land") ? intArray(json.getJSONArray("ordered_land")) : null,
+                builder.getLandGridOrder());
+        assertArrayEquals(name, json.has("ordered_probabilities")
+                ? intArray(json.getJSONArray("ordered_probabilities")) : null,
+                builder.getAvailableOrderedProbabilities());
+        assertArrayEquals(name, json.has("ordered_harbors") ? intArray(json.getJSONArray("ordered_harbors")) : null,
+                builder.getOrderedHarbors());
+
+        Map<String, List<Resource>> resourceWhitelists = new HashMap<String, List<Resource>>();
+        Map<String, List<Integer>> probabilityWhitelists = new HashMap<String, List<Integer>>();
+        JSONArray whitelistArray = json.optJSONArray("land_whitelist");
+        for (int i = 0; whitelistArray != null && i < whitelistArray.length(); i++) {
+            JSONObject whitelist = whitelistArray.getJSONObject(i);
+            JSONArray values = whitelist.getJSONArray("value");
+            if (whitelist.getString("type").equals("resource")) {
+                resourceWhitelists.put(whitelist.getString("key"), Arrays.asList(resourceArray(values)));
+            } else {
+                List<Integer> list = new ArrayList<Integer>();
+                for (int j = 0; j < values.length(); j++) {
+                    list.add(Integer.parseInt(values.getString(j)));
+                }
+                probabilityWhitelists.put(whitelist.getString("key"), list);
+            }
+        }
+        assertEquals(name, resourceWhitelists, builder.getLandResourceWhitelists());
+        assertEquals(name, probabilityWhitelists, builder.getLandProbabilityWhitelists());
+        return builder;
+    }
+
+    private static int[] hexArray(JSONArray array) {
+        int[] hexes = new int[array == null ? 0 : array.length()];
+        for (int i = 0; i < hexes.length; i++) {
+            hexes[i] = Hex.pack(array.getJSONObject(i).getInt("x"), array.getJSONObject(i).getInt("y"));
+        }
+        return hexes;
+    }
+
+    private static Resource[] resourceArray(JSONArray array) {
+        Resource[] resources = new Resource[array == null ? 0 : array.length()];
+        for (int i = 0; i < resources.length; i++) {
+            resources[i] = Resource.getResourceByJson(array.getString(i));
+        }
+        return resources;
+    }
+
+    private static int[] intArray(JSONArray array) {
+        int[] ints = new int[array == null ? 0 : array.length()];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = array.getInt(i);
+        }
+        return ints;
+    }
+
+    private static String raw(String rawName) throws IOException {
+        InputStream is = CatanMapGeneratorTest.class.getResourceAsStream("/raw/" + rawName + ".json");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toString("UTF-8");
+        } finally {
+            is.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.nut.bettersettlers.generator.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CatanMapValidatorTest {
+    @Test
+    public void shippedMapsValidate() throws IOException {
+        for (String rawName : Maps.MAPS.values()) {
+            assertEquals(rawName, Collections.<String>emptyList(), CatanMapValidator.validate(map(rawName)));
+        }
+    }
+
+    @Test
+    public void reportsAsymmetricNeighbor() throws IOException {
+        CatanMap map = map("standard");
+        int[][] neighbors = map.landNeighbors.toArrays();
+        int neighbor = neighbors[0][0];
+        neighbors[neighbor] = without(neighbors[neighbor], 0);
+
+        assertReports(copy(map).setLandNeighbors(neighbors).build(),
+                "landNeighbors 0 lists " + neighbor + " but not the other way around");
+    }
+
+    @Test
+    public void reportsBadLandGridOrder() throws IOException {
+        CatanMap map = map("standard");
+        int[] order = map.landGridOrder.clone();
+        order[1] = order[0];
+
+        assertReports(copy(map).setLandGridOrder(order).build(), "landGridOrder 1 is " + order[0]);
+    }
+
+    @Test
+    public void reportsUnsatisfiableWhitelist() throws IOException {
+        CatanMap map = map("standard");
+        String[] whitelists = new String[map.landHexes.length];
+        whitelists[0] = "gold_only";
+        whitelists[1] = "gold_only";
+        Map<String, List<Resource>> resources = new HashMap<String, List<Resource>>();
+        // standard doesn't deal any gold
+        resources.put("gold_only", Arrays.asList(Resource.GOLD));
+
+        assertReports(copy(map).setLandGridWhitelists(whitelists).setLandResourceWhitelists(resources).build(),
+                "Resource whitelist gold_only allows 0 of the resources the map deals, for 2 tiles");
+    }
+
+    @Test
+    public void reportsEveryViolation() throws IOException {
+        CatanMap map = map("standard");
+        int[][] neighbors = map.landNeighbors.toArrays();
+        neighbors[neighbors[0][0]] = without(neighbors[neighbors[0][0]], 0);
+        int[] order = map.landGridOrder.clone();
+        order[1] = order[0];
+
+        List<String> violations = CatanMapValidator.validate(
+                copy(map).setLandNeighbors(neighbors).setLandGridOrder(order).build());
+        assertTrue(violations.toString(), contains(violations, "but not the other way around"));
+        assertTrue(violations.toString(), contains(violations, "landGridOrder 1 is"));
+    }
+
+    private static void assertReports(CatanMap map, String violation) {
+        List<String> violations = CatanMapValidator.validate(map);
+        assertTrue(violations.toString(), contains(violations, violation));
+    }
+
+    private static boolean contains(List<String> violations, String violation) {
+        for (String v : violations) {
+            if (v.contains(violation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] without(int[] row, int value) {
+        List<Integer> kept = new ArrayList<Integer>();
+        for (int v : row) {
+            if (v != value) {
+                kept.add(v);
+            }
+        }
+        int[] out = new int[kept.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = kept.get(i);
+        }
+        return out;
+    }
+
+    /** A builder holding everything map does, to break one part of it. */
+    private static CatanMap.Builder copy(CatanMap map) {
+        return CatanMap.newBuilder()
+                .setName(map.name)
+                .setTitle(map.title)
+                .setLowResourceNumber(map.lowResourceNumber)
+                .setHighResourceNumber(map.highResourceNumber)
+                .setLandGridProbabilities(map.landGridProbabilities)
+                .setLandGridResources(map.landGridResources)
+                .setLandHexes(map.landHexes)
+                .setLandGridWhitelists(map.landGridWhitelists)
+                .setLandResourceWhitelists(map.landResourceWhitelists)
+                .setLandProbabilityWhitelists(map.landProbabilityWhitelists)
+                .setLandGridOrder(map.landGridOrder)
+                .setWaterHexes(map.waterHexes)
+                .setHarborLines(map.harborLines)
+                .setLandNeighbors(map.landNeighbors)
+                .setWaterNeighbors(map.waterNeighbors)
+                .setWaterWaterNeighbors(map.waterWaterNeighbors)
+                .setLandIntersections(map.landIntersections)
+                .setLandIntersectionIndexes(map.landIntersectionIndexes)
+                .setPlacementIndexes(map.placementIndexes)
+                .setAvailableResources(map.availableResources)
+                .setAvailableProbabilities(map.availableProbabilities)
+                .setAvailableOrderedProbabilities(map.availableOrderedProbabilities)
+                .setAvailableHarbors(map.availableHarbors)
+                .setOrderedHarbors(map.orderedHarbors)
+                .setUnknownHexes(map.unknownHexes)
+                .setAvailableUnknownResources(map.availableUnknownResources)
+                .setAvailableUnknownProbabilities(map.availableUnknownProbabilities)
+                .setPlacementBlacklists(map.placementBlacklists)
+                .setLandWater(map.landWater)
+                .setLandWaterSeed(map.landWaterSeed);
+    }
+
+    private static CatanMap map(String rawName) throws IOException {
+        InputStream is = CatanMapValidatorTest.class.getResourceAsStream("/raw/" + rawName + ".json");
+        try {
+            return CatanMapGenerator.generateFromJson(is, 0L);
+        } finally {
+            is.close();
+        }
+    }
+}
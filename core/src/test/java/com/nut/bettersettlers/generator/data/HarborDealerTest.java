@@ -0,0 +1,103 @@
+package com.nut.bettersettlers.generator.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class HarborDealerTest {
+    private static final int SEEDS = 500;
+
+    @Test
+    public void keepsRandomHarborsApart() throws IOException {
+        CatanMap map = map("heading_for_new_shores");
+        assertNull(map.orderedHarbors);
+        assertDealsApart(map);
+    }
+
+    @Test
+    public void keepsOrderedHarborsApart() throws IOException {
+        for (String rawName : new String[] { "standard", "large", "xlarge" }) {
+            CatanMap map = map(rawName);
+            assertNotNull(rawName, map.orderedHarbors);
+            assertDealsApart(map);
+        }
+    }
+
+    @Test
+    public void onlyUsesOrderedSpots() throws IOException {
+        CatanMap map = map("standard");
+        HarborDealer dealer = new HarborDealer(map);
+        CatanBoard board = new CatanBoard(map);
+        for (int seed = 0; seed < SEEDS; seed++) {
+            dealer.deal(seed, board);
+            for (int water = 0; water < map.waterHexes.length; water++) {
+                if (board.harbors[water] != CatanBoard.NONE) {
+                    assertTrue("Water " + water, water < map.orderedHarbors.length);
+                    assertEquals("Water " + water, map.orderedHarbors[water], board.harborPositions[water]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedDealsSameHarbors() throws IOException {
+        CatanMap map = map("heading_for_new_shores");
+        CatanBoard first = new CatanBoard(map);
+        CatanBoard second = new CatanBoard(map);
+        new HarborDealer(map).deal(1234, first);
+        HarborDealer dealer = new HarborDealer(map);
+        // Dealing something else in between doesn't carry over
+        dealer.deal(99, second);
+        dealer.deal(1234, second);
+        assertArrayEquals(first.harbors, second.harbors);
+        assertArrayEquals(first.harborPositions, second.harborPositions);
+    }
+
+    private static void assertDealsApart(CatanMap map) {
+        HarborDealer dealer = new HarborDealer(map);
+        CatanBoard board = new CatanBoard(map);
+        int[] available = new int[Resource.values().length];
+        for (Resource harbor : map.availableHarbors) {
+            available[harbor.ordinal()]++;
+        }
+
+        for (int seed = 0; seed < SEEDS; seed++) {
+            assertTrue(map.name + " seed " + seed, dealer.deal(seed, board));
+
+            int[] dealt = new int[available.length];
+            Set<Long> corners = new HashSet<Long>();
+            for (int water = 0; water < map.waterHexes.length; water++) {
+                if (board.harbors[water] == CatanBoard.NONE) {
+                    continue;
+                }
+                dealt[board.harbors[water]]++;
+                // One harbor per water tile by construction, so only the corners can clash
+                int position = board.harborPositions[water];
+                int start = map.harborLines.start(water);
+                for (int p = position; p <= position + 1; p++) {
+                    long corner = Hex.corner(map.waterHexes[water], map.harborLines.value(start + p));
+                    assertTrue(map.name + " seed " + seed + " water " + water, corners.add(corner));
+                }
+            }
+            assertArrayEquals(map.name + " seed " + seed, available, dealt);
+        }
+    }
+
+    private static CatanMap map(String rawName) throws IOException {
+        InputStream is = HarborDealerTest.class.getResourceAsStream("/raw/" + rawName + ".json");
+        try {
+            return CatanMapGenerator.generateFromJson(is, 0L);
+        } finally {
+            is.close();
+        }
+    }
+}
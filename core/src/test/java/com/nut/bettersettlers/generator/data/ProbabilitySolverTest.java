@@ -0,0 +1,91 @@
+package com.nut.bettersettlers.generator.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class ProbabilitySolverTest {
+    private static final int SEEDS = 200;
+
+    @Test
+    public void solvesShippedMap() throws IOException {
+        assertSolvesEverySeed(map(json("heading_for_new_shores")));
+    }
+
+    /** land_water turns land into water without taking its numbers out of the pool. */
+    @Test
+    public void solvesWithLandWater() throws IOException {
+        JSONObject json = json("heading_for_new_shores");
+        json.put("land_water", 3);
+        assertSolvesEverySeed(map(json));
+    }
+
+    @Test
+    public void solvesWithSpareProbabilities() throws IOException {
+        JSONObject json = json("heading_for_new_shores");
+        json.getJSONArray("probabilities").put(5).put(9);
+        assertSolvesEverySeed(map(json));
+    }
+
+    private static void assertSolvesEverySeed(CatanMap map) {
+        CatanBoardGenerator generator = new CatanBoardGenerator(map);
+        ProbabilitySolver solver = new ProbabilitySolver(map);
+        CatanBoard board = generator.newBoard();
+        for (int seed = 0; seed < SEEDS; seed++) {
+            generator.generate(seed, board);
+            assertTrue("Seed " + seed, solver.solve(seed, board));
+            assertRulesHold(map, board);
+        }
+    }
+
+    private static void assertRulesHold(CatanMap map, CatanBoard board) {
+        int[] probabilities = board.landProbabilities;
+        for (int i = 0; i < map.landHexes.length; i++) {
+            if (board.landResources[i] == Resource.DESERT.ordinal()) {
+                assertEquals(0, probabilities[i]);
+                continue;
+            }
+            assertNotEquals("Land " + i, CatanBoard.NONE, probabilities[i]);
+            for (int n = map.landNeighbors.start(i); n < map.landNeighbors.end(i); n++) {
+                int neighbor = probabilities[map.landNeighbors.value(n)];
+                if (probabilities[i] == 0 || neighbor == 0) {
+                    continue;
+                }
+                assertNotEquals("Land " + i, probabilities[i], neighbor);
+                assertFalse("Land " + i, isRed(probabilities[i]) && isRed(neighbor));
+            }
+        }
+    }
+
+    private static boolean isRed(int probability) {
+        return probability == 6 || probability == 8;
+    }
+
+    private static JSONObject json(String rawName) throws IOException {
+        InputStream is = ProbabilitySolverTest.class.getResourceAsStream("/raw/" + rawName + ".json");
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return new JSONObject(bytes.toString("UTF-8"));
+        } finally {
+            is.close();
+        }
+    }
+
+    private static CatanMap map(JSONObject json) throws IOException {
+        return CatanMapGenerator.generateFromJson(new ByteArrayInputStream(json.toString().getBytes("UTF-8")), 0L);
+    }
+}
@@ -0,0 +1,18 @@
+package com.nut.bettersettlers.generator;
+
+import android.util.Log;
+
+import com.nut.bettersettlers.generator.data.Logger;
+
+/** Routes the data package's logging to logcat. */
+public final class AndroidLogger implements Logger {
+    @Override
+    public void i(String tag, String msg) {
+        Log.i(tag, msg);
+    }
+
+    @Override
+    public void e(String tag, String msg, Throwable tr) {
+        Log.e(tag, msg, tr);
+    }
+}
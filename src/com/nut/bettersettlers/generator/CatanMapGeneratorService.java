@@ -1,9 +1,8 @@
 package com.nut.bettersettlers.generator;
 
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.util.Map;
+import java.io.InputStream;
 
 import android.app.IntentService;
 import android.content.Context;
@@ -12,45 +11,71 @@ import android.content.res.Resources;
 import android.util.Log;
 
 import com.nut.bettersettlers.generator.data.CatanMapGenerator;
+import com.nut.bettersettlers.generator.data.Logger;
 import com.nut.bettersettlers.generator.data.Maps;
 
 public class CatanMapGeneratorService extends IntentService {
     private static final String TAG = "CatanMapGenerator";
 
+    /** The {@link OutputFormat} name to write. Defaults to JAVA. */
+    public static final String EXTRA_FORMAT = "format";
+
+    private final Logger mLogger = new AndroidLogger();
+
     public CatanMapGeneratorService() {
         super(CatanMapGeneratorService.class.getName());
     }
 
-    public static void start(Context context) {
-        context.startService(new Intent(context, CatanMapGeneratorService.class));
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        CatanMapGenerator.setLogger(mLogger);
     }
 
-    @Override
-    protected void onHandleIntent(Intent intent) {
-        Log.i(TAG, "Start");
+    public static void start(Context context) {
+        start(context, OutputFormat.JAVA);
+    }
 
-        Resources res = getResources();
-        for (Map.Entry<String, Integer> map : Maps.MAPS.entrySet()) {
-            Log.i(TAG, "Writing " + map.getKey());
-            write(map.getKey() + ".java", CatanMapGenerator.generateFromJson(res.openRawResource(map.getValue())).toClassString(map.getKey()));
-        }
+    public static void start(Context context, OutputFormat format) {
+        context.startService(new Intent(context, CatanMapGeneratorService.class)
+                .putExtra(EXTRA_FORMAT, format.name()));
     }
 
-    private void write(String name, String str) {
-        FileOutputStream fos = null;
+    @Override
+    protected void onHandleIntent(Intent intent) {
+        OutputFormat format = OutputFormat.parse(intent.getStringExtra(EXTRA_FORMAT));
         try {
-            fos = openFileOutput(name, Context.MODE_PRIVATE);
-            fos.write(str.getBytes());
-        } catch (FileNotFoundException e) {
-            Log.e(TAG, "File Not Found", e);
+            new CatanMapBatchGenerator(new ContextFiles(), format, mLogger).generate(Maps.MAPS);
         } catch (IOException e) {
             Log.e(TAG, "IOException", e);
-        } finally {
-            if (fos != null) {
-                try {
-                    fos.close();
-                } catch (IOException e) {}
+        }
+    }
+
+    /** Reads json from res/raw and writes outputs to the app's private files. */
+    private class ContextFiles implements CatanMapBatchGenerator.Files {
+        @Override
+        public InputStream openJson(String rawName) throws IOException {
+            Resources res = getResources();
+            int rawId = res.getIdentifier(rawName, "raw", getPackageName());
+            if (rawId == 0) {
+                throw new IOException("No such raw resource: " + rawName);
             }
+            return res.openRawResource(rawId);
+        }
+
+        @Override
+        public boolean exists(String name) {
+            return getFileStreamPath(name).exists();
+        }
+
+        @Override
+        public InputStream openForReading(String name) throws IOException {
+            return openFileInput(name);
+        }
+
+        @Override
+        public CatanMapBatchGenerator.Output openForWriting(String name) throws IOException {
+            return new ReplacingFileOutput(new File(getFilesDir(), name));
         }
     }
 }
@@ -0,0 +1,95 @@
+package com.nut.bettersettlers.generator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import com.nut.bettersettlers.generator.data.Logger;
+import com.nut.bettersettlers.generator.data.Maps;
+
+/**
+ * Headless entry point. Generates every map in {@link Maps#MAPS} on a plain JVM. Lives in tools
+ * since --watch needs java.nio.file, which the app's minSdk doesn't have.
+ *
+ * Usage: CatanMapGeneratorMain [--profile] [--watch] &lt;raw dir&gt; &lt;output dir&gt; [java|compact_java|lazy_java|binary|both|bundle]
+ *
+ * --profile also writes how long (and how much allocation) each phase took per map. --watch keeps
+ * running and regenerates whichever maps are saved (see CatanMapWatcher).
+ */
+public final class CatanMapGeneratorMain {
+    // Prevent instantiation
+    private CatanMapGeneratorMain() {}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean profiling = false;
+        boolean watching = false;
+        int flags = 0;
+        for (; flags < args.length && args[flags].startsWith("--"); flags++) {
+            if (args[flags].equals("--profile")) {
+                profiling = true;
+            } else if (args[flags].equals("--watch")) {
+                watching = true;
+            } else {
+                break;
+            }
+        }
+        args = Arrays.copyOfRange(args, flags, args.length);
+        if (args.length != 2 && args.length != 3) {
+            System.err.println("Usage: CatanMapGeneratorMain [--profile] [--watch] <raw dir> <output dir> [java|compact_java|lazy_java|binary|both|bundle]");
+            System.exit(1);
+        }
+
+        File rawDir = new File(args[0]);
+        File outDir = new File(args[1]);
+        OutputFormat format = OutputFormat.parse(args.length == 3 ? args[2] : null);
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new IOException("Couldn't create " + outDir);
+        }
+
+        CatanMapBatchGenerator generator = new CatanMapBatchGenerator(new DirectoryFiles(rawDir, outDir), format,
+                Logger.SYSTEM, Runtime.getRuntime().availableProcessors(), profiling);
+        if (watching) {
+            new CatanMapWatcher(rawDir.toPath(), generator, Maps.MAPS, Logger.SYSTEM).watch();
+        } else {
+            generator.generate(Maps.MAPS);
+        }
+    }
+
+    /**
+     * Reads json from one directory and writes outputs to another. Outputs are written to a
+     * temporary file first and renamed over the old one when committed (see
+     * ReplacingFileOutput), so anything reading them sees either the old output or the new one,
+     * never part of one.
+     */
+    static final class DirectoryFiles implements CatanMapBatchGenerator.Files {
+        private final File rawDir;
+        private final File outDir;
+
+        DirectoryFiles(File rawDir, File outDir) {
+            this.rawDir = rawDir;
+            this.outDir = outDir;
+        }
+
+        @Override
+        public InputStream openJson(String rawName) throws IOException {
+            return new FileInputStream(new File(rawDir, rawName + ".json"));
+        }
+
+        @Override
+        public boolean exists(String name) {
+            return new File(outDir, name).exists();
+        }
+
+        @Override
+        public InputStream openForReading(String name) throws IOException {
+            return new FileInputStream(new File(outDir, name));
+        }
+
+        @Override
+        public CatanMapBatchGenerator.Output openForWriting(String name) throws IOException {
+            return new ReplacingFileOutput(new File(outDir, name));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.nut.bettersettlers.generator;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.nut.bettersettlers.generator.data.Logger;
+
+/**
+ * Watches the raw json directory and regenerates whenever one of the maps' json is saved. Only
+ * the edited maps are regenerated, since the batch generator skips maps whose json hasn't
+ * changed (see GenerationManifest), and every output is swapped in whole (see
+ * CatanMapGeneratorMain.DirectoryFiles), so nothing reading the outputs sees a half-written one.
+ *
+ * Needs java.nio.file, so this lives in tools rather than core, which the app compiles.
+ */
+public final class CatanMapWatcher {
+    private static final String TAG = "CatanMapGenerator";
+
+    // Editors often save in a few steps (write, rename, touch), wait this long for them to settle
+    private static final long SETTLE_MILLIS = 20;
+
+    private final Path rawDir;
+    private final CatanMapBatchGenerator generator;
+    private final Map<String, String> maps;
+    private final Set<String> jsonNames = new HashSet<String>();
+    private final Logger logger;
+
+    /** Regenerates maps (class name to raw json name) from rawDir with generator. */
+    public CatanMapWatcher(Path rawDir, CatanMapBatchGenerator generator, Map<String, String> maps, Logger logger) {
+        this.rawDir = rawDir;
+        this.generator = generator;
+        this.maps = maps;
+        this.logger = logger;
+        for (String rawName : maps.values()) {
+            jsonNames.add(rawName + ".json");
+        }
+    }
+
+    /** Generates whatever is out of date, then keeps regenerating on every save until interrupted. */
+    public void watch() throws IOException, InterruptedException {
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+        try {
+            // Registered before the first run so a save during it isn't missed
+            rawDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            generate();
+            logger.i(TAG, "Watching " + rawDir);
+
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                do {
+                    changed |= isMapChange(key);
+                    if (!key.reset()) {
+                        throw new IOException("Can't watch " + rawDir + " anymore");
+                    }
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                if (changed) {
+                    generate();
+                }
+            }
+        } finally {
+            watchService.close();
+        }
+    }
+
+    private boolean isMapChange(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were dropped, so anything might have changed
+                changed = true;
+            } else if (jsonNames.contains(((Path) event.context()).getFileName().toString())) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void generate() {
+        long start = System.nanoTime();
+        try {
+            int generated = generator.generate(maps);
+            logger.i(TAG, "Generated " + generated + " map(s) in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (IOException e) {
+            // Keep watching, the next save might fix it
+            logger.e(TAG, "IOException generating", e);
+        } catch (RuntimeException e) {
+            // A half-edited map can fail to parse or validate (the bundle parses maps directly)
+            logger.e(TAG, "Couldn't generate", e);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.nut.bettersettlers.generator.data;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Deals, optionally solves, and scores a large run of boards for one map across a ForkJoinPool,
+ * and reports how the metrics came out along with the seeds of the boards within the limits.
+ *
+ * Board i of a run gets the seed SplitMix64.seedAt(seed, i), so every board only depends on the
+ * run's seed and its own index. However the run gets split up and whatever order the pieces
+ * finish in, a parallel run reports exactly what a serial one with the same seed does, and any
+ * kept board can be dealt again from its seed alone.
+ *
+ * Each thread deals with its own generator, solver and scorer, made the first time it picks up
+ * part of a run and reused after that, so splitting a run up finely costs nothing extra.
+ *
+ * Needs ForkJoinPool, so this lives in tools rather than core, which the app compiles.
+ */
+public final class BoardSampler {
+    // Smallest piece of a run worth handing to another thread
+    private static final int MIN_SPLIT = 1024;
+
+    private final CatanMap map;
+    private final boolean solve;
+    private final int[] maxMetrics;
+    private final int maxKept;
+
+    private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+        @Override
+        protected Worker initialValue() {
+            return new Worker();
+        }
+    };
+
+    /**
+     * Boards are solved with a ProbabilitySolver first if solve is set. A board is kept if every
+     * BoardScorer metric is at most its entry in maxMetrics, and at most maxKept seeds (the
+     * earliest in the run) are reported.
+     */
+    public BoardSampler(CatanMap map, boolean solve, int[] maxMetrics, int maxKept) {
+        if (maxMetrics.length != BoardScorer.METRICS) {
+            throw new IllegalArgumentException("Need " + BoardScorer.METRICS + " metric limits");
+        }
+        this.map = map;
+        this.solve = solve;
+        this.maxMetrics = maxMetrics.clone();
+        this.maxKept = maxKept;
+    }
+
+    /** Samples count boards on pool. */
+    public Sample sample(ForkJoinPool pool, long seed, long count) {
+        long split = Math.max(MIN_SPLIT, count / (pool.getParallelism() * 8L));
+        return pool.invoke(new SampleTask(seed, 0, count, split));
+    }
+
+    /** Samples count boards on the calling thread. */
+    public Sample sample(long seed, long count) {
+        return sampleRange(seed, 0, count);
+    }
+
+    private Sample sampleRange(long seed, long from, long to) {
+        Worker worker = workers.get();
+        CatanBoardGenerator generator = worker.generator;
+        ProbabilitySolver solver = worker.solver;
+        BoardScorer scorer = worker.scorer;
+        CatanBoard board = worker.board;
+
+        Sample sample = new Sample(maxKept);
+        for (long i = from; i < to; i++) {
+            long boardSeed = SplitMix64.seedAt(seed, i);
+            generator.generate(boardSeed, board);
+            sample.boards++;
+            if (solver != null && !solver.solve(boardSeed, board)) {
+                continue;
+            }
+            scorer.score(board);
+            sample.add(scorer.getMetrics());
+            if (sample.kept < maxKept && passes(scorer.getMetrics())) {
+                sample.keep(boardSeed);
+            }
+        }
+        return sample;
+    }
+
+    private boolean passes(int[] metrics) {
+        for (int i = 0; i < BoardScorer.METRICS; i++) {
+            if (metrics[i] > maxMetrics[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Everything one thread needs to deal, solve and score boards. */
+    private final class Worker {
+        final CatanBoardGenerator generator = new CatanBoardGenerator(map);
+        final ProbabilitySolver solver = solve ? new ProbabilitySolver(map) : null;
+        final BoardScorer scorer = new BoardScorer(map);
+        final CatanBoard board = generator.newBoard();
+    }
+
+    /** Splits the run in half until the pieces are small enough to deal on one thread. */
+    private final class SampleTask extends RecursiveTask<Sample> {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final long from;
+        private final long to;
+        private final long split;
+
+        SampleTask(long seed, long from, long to, long split) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.split = split;
+        }
+
+        @Override
+        protected Sample compute() {
+            if (to - from <= split) {
+                return sampleRange(seed, from, to);
+            }
+            long middle = from + (to - from) / 2;
+            SampleTask first = new SampleTask(seed, from, middle, split);
+            first.fork();
+            Sample second = new SampleTask(seed, middle, to, split).compute();
+            // The earlier half goes first so kept seeds stay in run order
+            return first.join().merge(second);
+        }
+    }
+
+    /** What came out of a run of boards. */
+    public static final class Sample {
+        /** How many boards were dealt. */
+        long boards;
+
+        /** How many of them were solved and scored. */
+        long scored;
+
+        private final long[] metricSums = new long[BoardScorer.METRICS];
+        private final int[] metricMins = new int[BoardScorer.METRICS];
+        private final int[] metricMaxes = new int[BoardScorer.METRICS];
+
+        // Only grows as seeds are kept, maxKept is just a limit
+        private final int maxKept;
+        private long[] keptSeeds = new long[0];
+        private int kept;
+
+        Sample(int maxKept) {
+            Arrays.fill(metricMins, Integer.MAX_VALUE);
+            Arrays.fill(metricMaxes, Integer.MIN_VALUE);
+            this.maxKept = maxKept;
+        }
+
+        public long getBoards() {
+            return boards;
+        }
+
+        public long getScored() {
+            return scored;
+        }
+
+        /** Returns the mean of a BoardScorer metric over the scored boards. */
+        public double getMean(int metric) {
+            return scored == 0 ? 0 : metricSums[metric] / (double) scored;
+        }
+
+        public int getMin(int metric) {
+            return metricMins[metric];
+        }
+
+        public int getMax(int metric) {
+            return metricMaxes[metric];
+        }
+
+        /** Returns the seeds of the boards within the limits, in run order. */
+        public long[] getKeptSeeds() {
+            return Arrays.copyOf(keptSeeds, kept);
+        }
+
+        private void keep(long seed) {
+            ensureCapacity(kept + 1);
+            keptSeeds[kept++] = seed;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > keptSeeds.length) {
+                int length = Math.min(maxKept, Math.max(capacity, Math.max(16, keptSeeds.length * 2)));
+                keptSeeds = Arrays.copyOf(keptSeeds, length);
+            }
+        }
+
+        private void add(int[] metrics) {
+            scored++;
+            for (int i = 0; i < BoardScorer.METRICS; i++) {
+                metricSums[i] += metrics[i];
+                metricMins[i] = Math.min(metricMins[i], metrics[i]);
+                metricMaxes[i] = Math.max(metricMaxes[i], metrics[i]);
+            }
+        }
+
+        /** Folds later, the sample for the part of the run right after this one, into this. */
+        private Sample merge(Sample later) {
+            boards += later.boards;
+            scored += later.scored;
+            for (int i = 0; i < BoardScorer.METRICS; i++) {
+                metricSums[i] += later.metricSums[i];
+                metricMins[i] = Math.min(metricMins[i], later.metricMins[i]);
+                metricMaxes[i] = Math.max(metricMaxes[i], later.metricMaxes[i]);
+            }
+            int take = Math.min(later.kept, maxKept - kept);
+            ensureCapacity(kept + take);
+            System.arraycopy(later.keptSeeds, 0, keptSeeds, kept, take);
+            kept += take;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.nut.bettersettlers.generator.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BoardSamplerTest {
+    private static final int BOARDS = 20000;
+
+    private static ForkJoinPool pool;
+    private static CatanMap map;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        pool = new ForkJoinPool(4);
+        InputStream is = BoardSamplerTest.class.getResourceAsStream("/raw/standard.json");
+        try {
+            map = CatanMapGenerator.generateFromJson(is, 0L);
+        } finally {
+            is.close();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void parallelMatchesSerial() {
+        assertParallelMatchesSerial(new BoardSampler(map, true, new int[] { 13, 3, 150, 3 }, BOARDS), 42);
+    }
+
+    @Test
+    public void parallelMatchesSerialWithoutSolving() {
+        assertParallelMatchesSerial(new BoardSampler(map, false, new int[] { 13, 3, 150, 3 }, BOARDS), 7);
+    }
+
+    /** Every board passes, so the limit is hit partway through merging the second piece of the run. */
+    @Test
+    public void maxKeptCutsOffMidMerge() {
+        int[] noLimits = new int[BoardScorer.METRICS];
+        Arrays.fill(noLimits, Integer.MAX_VALUE);
+        BoardSampler sampler = new BoardSampler(map, false, noLimits, 1500);
+        BoardSampler.Sample serial = assertParallelMatchesSerial(sampler, 3);
+
+        long[] kept = serial.getKeptSeeds();
+        assertEquals(1500, kept.length);
+        for (int i = 0; i < kept.length; i++) {
+            assertEquals(SplitMix64.seedAt(3, i), kept[i]);
+        }
+    }
+
+    private static BoardSampler.Sample assertParallelMatchesSerial(BoardSampler sampler, long seed) {
+        BoardSampler.Sample serial = sampler.sample(seed, BOARDS);
+        BoardSampler.Sample parallel = sampler.sample(pool, seed, BOARDS);
+
+        assertEquals(BOARDS, serial.getBoards());
+        assertTrue(serial.getScored() > 0);
+        assertEquals(serial.getBoards(), parallel.getBoards());
+        assertEquals(serial.getScored(), parallel.getScored());
+        for (int metric = 0; metric < BoardScorer.METRICS; metric++) {
+            assertEquals("Min " + metric, serial.getMin(metric), parallel.getMin(metric));
+            assertEquals("Max " + metric, serial.getMax(metric), parallel.getMax(metric));
+            // The sums are exact longs, so the means match exactly too
+            assertEquals("Mean " + metric, serial.getMean(metric), parallel.getMean(metric), 0);
+        }
+        assertArrayEquals(serial.getKeptSeeds(), parallel.getKeptSeeds());
+        return serial;
+    }
+}